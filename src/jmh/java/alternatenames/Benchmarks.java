@@ -0,0 +1,22 @@
+package alternatenames;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// run all benchmarks (or those matching the arguments) with the GC profiler, reports throughput and allocation rate
+// usage: java -jar target/benchmarks.jar [benchmark regex ...]
+public class Benchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder().addProfiler(GCProfiler.class);
+        if (args.length == 0)
+            options.include(".*Benchmark.*");
+        for (String include : args) {
+            options.include(include);
+        }
+        new Runner(options.build()).run();
+    }
+}
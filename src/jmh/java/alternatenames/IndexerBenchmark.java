@@ -0,0 +1,82 @@
+package alternatenames;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Indexer.addDocument and Indexer.searchArticles on a generated in-memory index
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexerBenchmark {
+
+    private static final String[] TAGS = {"aka", "alt_name", "alternate_name"};
+    private static final Set<String> RESULT_FIELDS = new HashSet<>(Arrays.asList("title", "alternateName"));
+
+    @Param({"100000"})
+    public int articles;
+
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        Indexer.analyzer = new StandardAnalyzer();
+        Indexer.index = new RAMDirectory();
+        Indexer.writer = new IndexWriter(Indexer.index, new IndexWriterConfig(Version.LATEST, Indexer.analyzer));
+        for (int i = 0; i < articles; i++) {
+            addArticle(i);
+        }
+        Indexer.writer.commit();
+        Indexer.reader = DirectoryReader.open(Indexer.index);
+        Indexer.searcher = new IndexSearcher(Indexer.reader);
+        next = articles;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Indexer.reader.close();
+        Indexer.writer.close();
+        Indexer.index.close();
+    }
+
+    @Benchmark
+    public void addDocument() throws IOException {
+        addArticle(next++);
+    }
+
+    @Benchmark
+    public int searchArticlesByTitle() throws ParseException, IOException {
+        return Indexer.searchArticles("title", "article " + (next++ % articles), 10, RESULT_FIELDS).documents.size();
+    }
+
+    @Benchmark
+    public int searchArticlesByFullText() throws ParseException, IOException {
+        return Indexer.searchArticles("fullText", "name " + (next++ % articles), 10, RESULT_FIELDS).documents.size();
+    }
+
+    private static void addArticle(int i) throws IOException {
+        String title = "Article " + i;
+        String tag = TAGS[i % TAGS.length];
+        int frequency = 1 + i % 4;
+        for (int j = 0; j < frequency; j++) {
+            Indexer.addDocument(title, "Infobox " + tag, "Name " + i + " " + j, tag, frequency);
+        }
+        for (int j = 0; j < frequency; j++) {
+            Indexer.addDocument(title, "", "Name " + i + " " + j, "all_tags", frequency);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package alternatenames;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.utils.IOUtils;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+// Parser.parse over a small bundled bz2 dump (200 pages), including decompression and indexing into memory
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({Parser.RENDERER_TEXTILE, Parser.RENDERER_DIRECT})
+    public String renderer;
+
+    private byte[] dump;
+
+    @Setup
+    public void setup() throws IOException {
+        Parser.renderer = renderer;
+        Parser.printAlternateNames = false;
+        try (InputStream in = ParseBenchmark.class.getResourceAsStream("/sample-pages.xml.bz2")) {
+            dump = IOUtils.toByteArray(in);
+        }
+    }
+
+    @Benchmark
+    public long parse() throws IOException {
+        RAMDirectory directory = new RAMDirectory();
+        try (PageScanner in = new PageScanner(new BZip2CompressorInputStream(new ByteArrayInputStream(dump), true), 1 << 16);
+             IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(Version.LATEST, new StandardAnalyzer()))) {
+            Parser.parse(in, writer);
+            return writer.maxDoc();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package alternatenames;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// extraction of alternate names from a corpus of real infobox alias values (one value per line, escaped as in the dump),
+// ParserRenderingTest checks the rendering of the same corpus
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({Parser.RENDERER_TEXTILE, Parser.RENDERER_DIRECT})
+    public String renderer;
+
+    private List<String> values;
+    private List<String> renderedValues;
+    private List<List<String>> alternateNames;
+
+    @Setup
+    public void setup() throws IOException {
+        Parser.renderer = renderer;
+        values = readLines("/infobox-aliases.txt");
+        renderedValues = new ArrayList<>();
+        alternateNames = new ArrayList<>();
+        for (String value : values) {
+            String rendered = Parser.removeHtmlTags(value);
+            renderedValues.add(rendered);
+            alternateNames.add(Parser.getAlternateNames(rendered));
+        }
+    }
+
+    @Benchmark
+    public void removeHtmlTags(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(Parser.removeHtmlTags(value));
+        }
+    }
+
+    @Benchmark
+    public void getAlternateNames(Blackhole blackhole) {
+        for (String value : renderedValues) {
+            blackhole.consume(Parser.getAlternateNames(value));
+        }
+    }
+
+    @Benchmark
+    public void recheckAlternateNames(Blackhole blackhole) {
+        for (List<String> names : alternateNames) {
+            blackhole.consume(Parser.recheckAlternateNames(names));
+        }
+    }
+
+    // the whole extraction of one parameter value, as done by Parser.extractPage
+    @Benchmark
+    public void extractValue(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(Parser.recheckAlternateNames(Parser.getAlternateNames(Parser.removeHtmlTags(value))));
+        }
+    }
+
+    static List<String> readLines(String resource) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                ParserBenchmark.class.getResourceAsStream(resource), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isEmpty())
+                    lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,19 @@
+package alternatenames;
+
+import java.util.List;
+
+// alternate names found in one parameter (tag) of an infobox
+public class AliasRecord {
+
+    public final String title;
+    public final String infoboxName;
+    public final String tag;
+    public final List<String> alternateNames;
+
+    public AliasRecord(String title, String infoboxName, String tag, List<String> alternateNames) {
+        this.title = title;
+        this.infoboxName = infoboxName;
+        this.tag = tag;
+        this.alternateNames = alternateNames;
+    }
+}
@@ -0,0 +1,259 @@
+package alternatenames;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.BytesRefFSTEnum;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+// finite-state transducer from every normalized title and alternate name to the articles it names,
+// used to resolve a name to titles and to complete prefixes of names by weight
+// output of a name: (MAX_WEIGHT - weight) << 32 | index of its list of articles, so the shortest paths are the heaviest names
+// usage: AliasResolver <index> <resolver file>
+public class AliasResolver {
+
+    private static final int MAGIC = 0x41525331; // ARS1
+    private static final long MAX_WEIGHT = Integer.MAX_VALUE;
+    private static final Set<String> FIELDS = new HashSet<>(Arrays.asList("title", "alternateName", "tag", "frequency"));
+    private static final PositiveIntOutputs OUTPUTS = PositiveIntOutputs.getSingleton();
+
+    private final FST<Long> fst;
+    private final String[] titles; // article id -> title
+    private final int[] postingStarts; // name -> start of its articles in postings, one more entry for the end
+    private final int[] postings; // article ids of all names
+
+    private AliasResolver(FST<Long> fst, String[] titles, int[] postingStarts, int[] postings) {
+        this.fst = fst;
+        this.titles = titles;
+        this.postingStarts = postingStarts;
+        this.postings = postings;
+    }
+
+    // completion of a prefix: normalized name, its weight and the titles of the articles it names
+    public static class Completion {
+        public final String name;
+        public final int weight;
+        public final List<String> titles;
+
+        Completion(String name, int weight, List<String> titles) {
+            this.name = name;
+            this.weight = weight;
+            this.titles = titles;
+        }
+    }
+
+    // titles of articles that have name as title or alternate name (case and whitespace insensitive)
+    public List<String> resolve(String name) throws IOException {
+        Long output = Util.get(fst, TitleDictionary.normalize(name));
+        if (output == null)
+            return Collections.emptyList();
+        return titlesOf(output);
+    }
+
+    // at most n names starting with prefix, heaviest first
+    public List<Completion> complete(String prefix, int n) throws IOException {
+        BytesRef key = TitleDictionary.normalize(prefix);
+        FST.BytesReader reader = fst.getBytesReader();
+        FST.Arc<Long> arc = fst.getFirstArc(new FST.Arc<Long>());
+        Long output = OUTPUTS.getNoOutput();
+        for (int i = 0; i < key.length; i++) {
+            if (fst.findTargetArc(key.bytes[key.offset + i] & 0xff, arc, arc, reader) == null)
+                return Collections.emptyList();
+            output = OUTPUTS.add(output, arc.output);
+        }
+        Util.TopResults<Long> results = Util.shortestPaths(fst, arc, output, Comparator.naturalOrder(), n, true);
+        List<Completion> completions = new ArrayList<>();
+        byte[] bytes = new byte[key.length + 64];
+        System.arraycopy(key.bytes, key.offset, bytes, 0, key.length);
+        for (Util.Result<Long> result : results) {
+            IntsRef suffix = result.input;
+            if (bytes.length < key.length + suffix.length)
+                bytes = Arrays.copyOf(bytes, key.length + suffix.length);
+            for (int i = 0; i < suffix.length; i++) {
+                bytes[key.length + i] = (byte) suffix.ints[suffix.offset + i];
+            }
+            String name = new String(bytes, 0, key.length + suffix.length, StandardCharsets.UTF_8);
+            completions.add(new Completion(name, weightOf(result.output), titlesOf(result.output)));
+        }
+        return completions;
+    }
+
+    public int size() {
+        return postingStarts.length - 1;
+    }
+
+    // every normalized name with its output, in order of UTF-8 bytes
+    void forEachName(BiConsumer<BytesRef, Long> consumer) throws IOException {
+        BytesRefFSTEnum<Long> names = new BytesRefFSTEnum<>(fst);
+        BytesRefFSTEnum.InputOutput<Long> name;
+        while ((name = names.next()) != null) {
+            consumer.accept(name.input, name.output);
+        }
+    }
+
+    int weightOf(long output) {
+        return (int) (MAX_WEIGHT - (output >>> 32));
+    }
+
+    List<String> titlesOf(long output) {
+        int name = (int) (output & 0xffffffffL);
+        List<String> result = new ArrayList<>(postingStarts[name + 1] - postingStarts[name]);
+        for (int i = postingStarts[name]; i < postingStarts[name + 1]; i++) {
+            result.add(titles[postings[i]]);
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: AliasResolver <index> <resolver file>");
+            return;
+        }
+        try (IndexReader reader = DirectoryReader.open(FSDirectory.open(Paths.get(args[0]).toFile()))) {
+            build(reader).save(Paths.get(args[1]));
+        }
+    }
+
+    // build from all articles in the index (documents with tag all_tags or of the compact schema), weight of an article is its number of alternate names
+    public static AliasResolver build(IndexReader reader) throws IOException {
+        List<String> titles = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        Map<String, Integer> articleIds = new HashMap<>();
+        TreeMap<BytesRef, Set<Integer>> names = new TreeMap<>(); // normalized name -> article ids, sorted by UTF-8 bytes
+        Bits liveDocs = MultiFields.getLiveDocs(reader);
+        for (int i = 0; i < reader.maxDoc(); i++) {
+            if (liveDocs != null && !liveDocs.get(i))
+                continue;
+            Document document = reader.document(i, FIELDS);
+            String tag = document.get("tag");
+            if (tag != null && !"all_tags".equals(tag))
+                continue;
+            String title = document.get("title");
+            Integer id = articleIds.get(title);
+            if (id == null) {
+                id = titles.size();
+                articleIds.put(title, id);
+                titles.add(title);
+                weights.add(0);
+            }
+            List<String> alternateNames = Indexer.alternateNames(document);
+            IndexableField frequency = document.getField("frequency"); // all alternate names of the article, not only those of this document
+            int weight = frequency != null ? frequency.numericValue().intValue() : alternateNames.size();
+            weights.set(id, Math.max(weights.get(id), weight));
+            addName(names, title, id);
+            for (String alternateName : alternateNames) {
+                addName(names, alternateName, id);
+            }
+        }
+
+        Builder<Long> builder = new Builder<>(FST.INPUT_TYPE.BYTE1, OUTPUTS);
+        IntsRefBuilder scratch = new IntsRefBuilder();
+        int[] postingStarts = new int[names.size() + 1];
+        int postingCount = 0;
+        for (Set<Integer> ids : names.values()) {
+            postingCount += ids.size();
+        }
+        int[] postings = new int[postingCount];
+        int name = 0;
+        int position = 0;
+        for (Map.Entry<BytesRef, Set<Integer>> entry : names.entrySet()) {
+            int weight = 0;
+            postingStarts[name] = position;
+            for (int id : entry.getValue()) {
+                postings[position++] = id;
+                weight = Math.max(weight, weights.get(id));
+            }
+            builder.add(Util.toIntsRef(entry.getKey(), scratch), (MAX_WEIGHT - weight) << 32 | name);
+            name++;
+        }
+        postingStarts[name] = position;
+        FST<Long> fst = builder.finish();
+        if (fst == null)
+            throw new IOException("Index contains no articles");
+        System.out.println("Alias resolver: " + names.size() + " names of " + titles.size() + " articles");
+        return new AliasResolver(fst, titles.toArray(new String[0]), postingStarts, postings);
+    }
+
+    private static void addName(TreeMap<BytesRef, Set<Integer>> names, String name, int id) {
+        BytesRef key = TitleDictionary.normalize(name);
+        if (key.length > 0)
+            names.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+    }
+
+    public void save(Path path) throws IOException {
+        Path tmp = Paths.get(path + ".tmp");
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+            OutputStreamDataOutput out = new OutputStreamDataOutput(stream);
+            out.writeInt(MAGIC);
+            out.writeVInt(titles.length);
+            for (String title : titles) {
+                out.writeString(title);
+            }
+            out.writeVInt(postingStarts.length);
+            for (int start : postingStarts) {
+                out.writeVInt(start);
+            }
+            out.writeVInt(postings.length);
+            for (int id : postings) {
+                out.writeVInt(id);
+            }
+            fst.save(out);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static AliasResolver open(Path path) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            InputStreamDataInput in = new InputStreamDataInput(stream);
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not an alias resolver file: " + path);
+            String[] titles = new String[in.readVInt()];
+            for (int i = 0; i < titles.length; i++) {
+                titles[i] = in.readString();
+            }
+            int[] postingStarts = new int[in.readVInt()];
+            for (int i = 0; i < postingStarts.length; i++) {
+                postingStarts[i] = in.readVInt();
+            }
+            int[] postings = new int[in.readVInt()];
+            for (int i = 0; i < postings.length; i++) {
+                postings[i] = in.readVInt();
+            }
+            return new AliasResolver(new FST<>(in, OUTPUTS), titles, postingStarts, postings);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package alternatenames;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// HTTP service for the lookups of SearchEngine, all requests share the searcher and the lookups of the index opened by Indexer.initReader
+//   GET /title?q=<title>              article with exactly this title
+//   GET /alias?q=<name>               articles that have name as title or alternate name
+//   GET /suggest?q=<name>[&n=10]      names similar to a misspelled name
+//   GET /complete?q=<prefix>[&n=10]   names starting with prefix
+//   GET /metrics                      requests per second and latency percentiles
+// connections are handled on virtual threads if the JVM has them (otherwise on a pool of --threads), lookups run on one thread per core
+// and are answered with 503 if they take longer than --timeout milliseconds or too many are waiting
+// usage: SearchEngine --serve <port> [--threads <threads>] [--timeout <milliseconds>]
+public class AliasServer {
+
+    private static final int BACKLOG = 4096; // connections waiting to be accepted
+    private static final int MAX_QUEUED_LOOKUPS = 10000;
+    private static final int DEFAULT_RESULTS = 10;
+    private static final int MAX_RESULTS = 100;
+
+    private final HttpServer server;
+    private final ExecutorService connections;
+    private final ThreadPoolExecutor lookups;
+    private final long timeoutMillis;
+
+    private final long startTime = System.nanoTime();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder badRequests = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final IngestMetrics.StripedHistogram latency = new IngestMetrics.StripedHistogram(IngestMetrics.LatencyBuckets.COUNT); // nanoseconds
+    private final AtomicLong lastMetricsTime = new AtomicLong(System.nanoTime());
+    private final AtomicLong lastMetricsRequests = new AtomicLong();
+
+    // a lookup of one endpoint, returns the JSON response or null if nothing was found
+    private interface Lookup {
+        String apply(Map<String, String> parameters) throws Exception;
+    }
+
+    // threads = 0 handles connections on virtual threads if they are available
+    public AliasServer(int port, int threads, long timeoutMillis) throws IOException {
+        this.timeoutMillis = timeoutMillis;
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.connections = threads > 0 ? Executors.newFixedThreadPool(threads) : newConnectionExecutor(cores);
+        this.lookups = new ThreadPoolExecutor(cores, cores, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_LOOKUPS), r -> {
+            Thread thread = new Thread(r, "lookup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(connections);
+        server.createContext("/title", exchange -> handle(exchange, this::title));
+        server.createContext("/alias", exchange -> handle(exchange, this::alias));
+        server.createContext("/suggest", exchange -> handle(exchange, this::suggest));
+        server.createContext("/complete", exchange -> handle(exchange, this::complete));
+        server.createContext("/metrics", exchange -> respond(exchange, 200, metrics()));
+    }
+
+    // arguments after --serve, the reader of the index is already open
+    public static void run(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: SearchEngine --serve <port> [--threads <threads>] [--timeout <milliseconds>]");
+            return;
+        }
+        int threads = 0;
+        long timeoutMillis = 1000;
+        for (int i = 1; i < args.length; i++) {
+            if ("--threads".equals(args[i]))
+                threads = Integer.parseInt(args[++i]);
+            else if ("--timeout".equals(args[i]))
+                timeoutMillis = Long.parseLong(args[++i]);
+        }
+        AliasServer server = new AliasServer(Integer.parseInt(args[0]), threads, timeoutMillis);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+        System.out.println("Listening on port " + server.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        connections.shutdownNow();
+        lookups.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor of Java 21 and later, 16 threads per core on older JVMs
+    private static ExecutorService newConnectionExecutor(int cores) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(cores * 16);
+        }
+    }
+
+    private String title(Map<String, String> parameters) throws Exception {
+        String name = required(parameters, "q");
+        AliasRecord record = Indexer.lookupTitle(name);
+        if (record == null)
+            return null;
+        return articles(name, "exact", Collections.singletonList(record.title), record);
+    }
+
+    private String alias(Map<String, String> parameters) throws Exception {
+        String name = required(parameters, "q");
+        List<String> titles = Indexer.resolveAlias(name);
+        if (titles.isEmpty())
+            return null;
+        return articles(name, "alias", titles, null);
+    }
+
+    private String suggest(Map<String, String> parameters) throws Exception {
+        String name = required(parameters, "q");
+        List<AliasResolver.Completion> suggestions = Indexer.suggest(name, results(parameters));
+        if (suggestions == null || suggestions.isEmpty())
+            return null;
+        return completions(name, "suggestions", suggestions);
+    }
+
+    private String complete(Map<String, String> parameters) throws Exception {
+        String prefix = required(parameters, "q");
+        List<AliasResolver.Completion> completions = Indexer.complete(prefix, results(parameters));
+        if (completions.isEmpty())
+            return null;
+        return completions(prefix, "completions", completions);
+    }
+
+    private static String articles(String name, String match, List<String> titles, AliasRecord record) throws Exception {
+        StringBuilder json = new StringBuilder("{\"name\":");
+        BatchLookup.quote(json, name);
+        json.append(",\"match\":\"").append(match).append("\",\"articles\":");
+        BatchLookup.appendArticles(json, titles, record);
+        return json.append('}').toString();
+    }
+
+    private static String completions(String name, String field, List<AliasResolver.Completion> completions) {
+        StringBuilder json = new StringBuilder("{\"name\":");
+        BatchLookup.quote(json, name);
+        json.append(",\"").append(field).append("\":[");
+        for (int i = 0; i < completions.size(); i++) {
+            AliasResolver.Completion completion = completions.get(i);
+            json.append(i == 0 ? "{\"name\":" : ",{\"name\":");
+            BatchLookup.quote(json, completion.name);
+            json.append(",\"weight\":").append(completion.weight).append(",\"titles\":");
+            BatchLookup.quote(json, completion.titles);
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.trim().isEmpty())
+            throw new IllegalArgumentException("missing parameter " + name);
+        return value;
+    }
+
+    private static int results(Map<String, String> parameters) {
+        String n = parameters.get("n");
+        return n == null ? DEFAULT_RESULTS : Math.max(1, Math.min(MAX_RESULTS, Integer.parseInt(n)));
+    }
+
+    // run the lookup on the lookup threads and wait for it at most timeoutMillis
+    private void handle(HttpExchange exchange, Lookup lookup) throws IOException {
+        long start = System.nanoTime();
+        requests.increment();
+        int status;
+        String body;
+        Future<String> result = null;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                status = 405;
+                body = error("only GET is supported");
+            }
+            else {
+                Map<String, String> parameters = parameters(exchange.getRequestURI().getRawQuery());
+                result = lookups.submit(() -> lookup.apply(parameters));
+                body = result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                status = body == null ? 404 : 200;
+                if (body == null) {
+                    notFound.increment();
+                    body = error("not found");
+                }
+            }
+        } catch (IllegalArgumentException e) { // malformed escape in the query string
+            badRequests.increment();
+            status = 400;
+            body = error(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            status = 503;
+            body = error("too many requests");
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            timeouts.increment();
+            status = 503;
+            body = error("timeout after " + timeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) { // also NumberFormatException
+                badRequests.increment();
+                status = 400;
+                body = error(e.getCause().getMessage());
+            }
+            else {
+                errors.increment();
+                status = 500;
+                body = error(String.valueOf(e.getCause()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.increment();
+            status = 503;
+            body = error("interrupted");
+        }
+        respond(exchange, status, body);
+        latency.increment(IngestMetrics.LatencyBuckets.bucket(System.nanoTime() - start));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        BatchLookup.quote(json, message);
+        return json.append('}').toString();
+    }
+
+    private static Map<String, String> parameters(String query) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null)
+            return parameters;
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0)
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"), URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+        }
+        return parameters;
+    }
+
+    // requests per second since the start and since the previous call, latency percentiles since the start
+    private String metrics() {
+        long now = System.nanoTime();
+        long total = requests.sum();
+        long previousTime = lastMetricsTime.getAndSet(now);
+        long previousRequests = lastMetricsRequests.getAndSet(total);
+        long[] counts = latency.snapshot();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"requests\":").append(total);
+        json.append(",\"notFound\":").append(notFound.sum());
+        json.append(",\"badRequests\":").append(badRequests.sum());
+        json.append(",\"timeouts\":").append(timeouts.sum());
+        json.append(",\"rejected\":").append(rejected.sum());
+        json.append(",\"errors\":").append(errors.sum());
+        json.append(",\"queuedLookups\":").append(lookups.getQueue().size());
+        json.append(String.format(Locale.ROOT, ",\"qps\":%.1f", total / ((now - startTime) / 1e9)));
+        json.append(String.format(Locale.ROOT, ",\"recentQps\":%.1f", (total - previousRequests) / Math.max(1e-3, (now - previousTime) / 1e9)));
+        json.append(String.format(Locale.ROOT, ",\"latencyP50Micros\":%.1f", IngestMetrics.LatencyBuckets.percentile(counts, 0.5) / 1e3));
+        json.append(String.format(Locale.ROOT, ",\"latencyP99Micros\":%.1f", IngestMetrics.LatencyBuckets.percentile(counts, 0.99) / 1e3));
+        json.append(String.format(Locale.ROOT, ",\"latencyP999Micros\":%.1f", IngestMetrics.LatencyBuckets.percentile(counts, 0.999) / 1e3));
+        return json.append('}').toString();
+    }
+}
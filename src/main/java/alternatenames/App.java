@@ -0,0 +1,180 @@
+package alternatenames;
+
+import org.apache.commons.compress.compressors.CompressorException;
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+public class App {
+    // add file(s) to a list and parse them one by one
+    // usage: App [--download [--download-url <url>] [--download-connections <n>]] [--workers <threads>] [--parallel-files <threads>] [--merge <segments>] [--renderer textile|direct]
+    //            [--params aka,alt_name,alternate_name,...] [--quiet] [--checkpoint <pages>] [--resume] [--progress <seconds>]
+    //            [--compact] [--search <refresh seconds>] [--rebuild] [--bulk <threads>] [--ram-buffer <MB>] [--page-store <file>]
+    //            [--page-budget <milliseconds>] [--quarantine <file>] [--records <file>]
+    //        App --from-page-store <file> [--workers <threads>] [--params ...] [--renderer ...] (always rebuilds the index)
+    //        App --multistream <pages-articles-multistream.xml.bz2> <multistream-index.txt.bz2> [--workers <threads>] [--resume]
+    public static void main(String[] args) throws IOException, CompressorException {
+        boolean download = false;
+        boolean resume = false; // continue after the last checkpoint in the index
+        String multistreamFile = null;
+        String multistreamIndex = null;
+        String pageStore = null; // keep pages with infobox in this file while parsing the dump
+        String fromPageStore = null; // extract alternate names again from this page store instead of the dump
+        String recordFile = null; // append the extracted records to this file too
+        int workers = 0; // 0 = parse on a single thread
+        int parallelFiles = 0; // 0 = parse files one by one into the same index
+        int bulkThreads = 0; // > 0 = bulk load with that many indexing threads
+        int maxSegments = 0; // 0 = do not merge the index at the end
+        int progressInterval = 30; // seconds between progress lines, 0 = no progress lines
+        int searchRefresh = 0; // > 0 answers queries during ingest, refreshing the searcher after that many seconds
+        for (int i = 0; i < args.length; i++) {
+            if ("--renderer".equals(args[i]))
+                Parser.renderer = args[++i];
+            else if ("--params".equals(args[i]))
+                Parser.setAliasParameters(Arrays.asList(args[++i].split(",")));
+            else if ("--compact".equals(args[i]))
+                Indexer.compactSchema = true;
+            else if ("--quiet".equals(args[i]))
+                Parser.printAlternateNames = false;
+            else if ("--checkpoint".equals(args[i]))
+                Parser.checkpointInterval = Long.parseLong(args[++i]);
+            else if ("--resume".equals(args[i]))
+                resume = true;
+            else if ("--download".equals(args[i]))
+                download = true;
+            else if ("--download-url".equals(args[i]))
+                Downloader.baseUrl = args[++i];
+            else if ("--download-connections".equals(args[i]))
+                Downloader.connections = Integer.parseInt(args[++i]);
+            else if ("--multistream".equals(args[i])) {
+                multistreamFile = args[++i];
+                multistreamIndex = args[++i];
+            }
+            else if ("--workers".equals(args[i]))
+                workers = Integer.parseInt(args[++i]);
+            else if ("--parallel-files".equals(args[i]))
+                parallelFiles = Integer.parseInt(args[++i]);
+            else if ("--bulk".equals(args[i]))
+                bulkThreads = Integer.parseInt(args[++i]);
+            else if ("--ram-buffer".equals(args[i]))
+                Indexer.bulkRamBufferMB = Double.parseDouble(args[++i]);
+            else if ("--merge".equals(args[i]))
+                maxSegments = Integer.parseInt(args[++i]);
+            else if ("--progress".equals(args[i]))
+                progressInterval = Integer.parseInt(args[++i]);
+            else if ("--search".equals(args[i]))
+                searchRefresh = Integer.parseInt(args[++i]);
+            else if ("--page-store".equals(args[i]))
+                pageStore = args[++i];
+            else if ("--from-page-store".equals(args[i])) {
+                fromPageStore = args[++i];
+                Indexer.rebuild = true; // the store has all pages, extracting them into the existing index would duplicate its documents
+            }
+            else if ("--page-budget".equals(args[i]))
+                ExtractionBudget.budgetNanos = Long.parseLong(args[++i]) * 1_000_000;
+            else if ("--records".equals(args[i]))
+                recordFile = args[++i];
+            else if ("--quarantine".equals(args[i]))
+                Parser.quarantine = new Quarantine(Paths.get(args[++i]));
+            else if ("--rebuild".equals(args[i]))
+                Indexer.rebuild = true;
+        }
+        if (resume && pageStore != null) {
+            System.err.println("--page-store cannot be used with --resume, the store would lack the pages before the checkpoint");
+            return;
+        }
+        if (resume && multistreamFile != null && recordFile != null) {
+            System.err.println("--records cannot be used with --resume of --multistream, shards that were being parsed at the checkpoint would add their records again");
+            return;
+        }
+        if (recordFile != null)
+            Parser.recordWriter = new RecordFile.Writer(Paths.get(recordFile)); // a resumed run truncates it to the checkpoint
+        IngestMetrics.register();
+        Thread search = null;
+        if (searchRefresh > 0) {
+            Indexer.openSearchers(searchRefresh);
+            search = SearchEngine.startInBackground();
+        }
+        if (fromPageStore != null) {
+            startProgressReporter(Arrays.asList(fromPageStore), progressInterval);
+            PageStore.extract(fromPageStore, workers > 0 ? workers : Runtime.getRuntime().availableProcessors());
+            finish(search);
+            return;
+        }
+        if (pageStore != null)
+            Parser.pageStore = new PageStore.Writer(Paths.get(pageStore));
+        if (multistreamFile != null) {
+            startProgressReporter(Arrays.asList(multistreamFile), progressInterval);
+            MultistreamParser.parse(multistreamFile, multistreamIndex, workers > 0 ? workers : Runtime.getRuntime().availableProcessors(), resume);
+            finish(search);
+            return;
+        }
+        List<String> fileNames = new ArrayList();
+        List<Future<String>> downloads = new ArrayList<>(); // parse every file as soon as it is downloaded and verified
+        if (download && parallelFiles > 0) {
+            for (String fileName : Downloader.download()) // download files (partial dumps) from the internet
+                fileNames.add(Downloader.directory + fileName);
+        }
+        else if (download) {
+            downloads = Downloader.startDownloads();
+        }
+        else {
+            fileNames.add("./src/main/resources/enwiki-latest-pages-articles.xml.bz2");
+        }
+        startProgressReporter(fileNames, progressInterval); // no ETA while files are still downloaded
+        if (parallelFiles > 0) {
+            BatchParser.parse(fileNames, parallelFiles, maxSegments);
+            finish(search);
+            return;
+        }
+        Indexer.bulkThreads = bulkThreads; // one writer for all files, tuned for bulk load with --bulk
+        Indexer.initWriter();
+        int files = downloads.isEmpty() ? fileNames.size() : downloads.size();
+        for (int i = 0; i < files; i++) {
+            String fileName = downloads.isEmpty() ? fileNames.get(i) : Downloader.directory + Downloader.await(downloads.get(i));
+            if (resume)
+                Parser.parse(fileName, true);
+            else if (bulkThreads > 0)
+                BulkIndexer.parse(fileName, bulkThreads, i == files - 1 ? maxSegments : 0);
+            else if (workers > 0)
+                Parser.parse(fileName, workers);
+            else
+                Parser.parse(fileName);
+        }
+        finish(search);
+    }
+
+    // build lookups of SearchEngine (exact titles, name resolution, suggestions), switch searchers to the finished index
+    // and keep answering queries until the user leaves the search
+    private static void finish(Thread search) throws IOException {
+        if (Parser.pageStore != null)
+            Parser.pageStore.close();
+        if (Parser.quarantine != null)
+            Parser.quarantine.close();
+        if (Parser.recordWriter != null)
+            Parser.recordWriter.close();
+        Indexer.buildLookups();
+        Indexer.publish();
+        if (search == null)
+            return;
+        try {
+            search.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // estimate remaining time from the total size of input files
+    private static void startProgressReporter(List<String> fileNames, int intervalSeconds) {
+        if (intervalSeconds <= 0)
+            return;
+        long totalBytes = 0;
+        for (String fileName : fileNames) {
+            totalBytes += new File(fileName).length();
+        }
+        IngestMetrics.startProgressReporter(totalBytes, intervalSeconds);
+    }
+}
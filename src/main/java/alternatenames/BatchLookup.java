@@ -0,0 +1,190 @@
+package alternatenames;
+
+import org.apache.lucene.queryparser.classic.ParseException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+// resolve a file of names (one per line) to articles and their alternate names on a pool of threads sharing the searcher,
+// and write one JSON object per name: {"name", "match": exact|alias|suggestion|none, "suggestion", "articles": [{"title", "aliases", "tags"}]}
+// usage: SearchEngine --batch <names file> <output file> [--threads <threads>] [--completion-order]
+public class BatchLookup {
+
+    private static final int PENDING_PER_THREAD = 64; // names looked up ahead of the output at most
+
+    private final LongAdder exact = new LongAdder();
+    private final LongAdder alias = new LongAdder();
+    private final LongAdder suggestion = new LongAdder();
+    private final LongAdder none = new LongAdder();
+
+    // arguments after --batch, the reader of the index is already open
+    public static void run(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: SearchEngine --batch <names file> <output file> [--threads <threads>] [--completion-order]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean inputOrder = true;
+        for (int i = 2; i < args.length; i++) {
+            if ("--threads".equals(args[i]))
+                threads = Integer.parseInt(args[++i]);
+            else if ("--completion-order".equals(args[i]))
+                inputOrder = false;
+        }
+        new BatchLookup().lookup(Paths.get(args[0]), Paths.get(args[1]), threads, inputOrder);
+    }
+
+    // lines are written in the order of the input, or as soon as their lookup is done if inputOrder is false
+    public void lookup(Path input, Path output, int threads, boolean inputOrder) throws IOException {
+        long start = System.nanoTime();
+        long names = 0;
+        int maxPending = threads * PENDING_PER_THREAD;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<String> completed = new ExecutorCompletionService<>(executor);
+        Queue<Future<String>> pending = new ArrayDeque<>(); // lookups in input order, only if inputOrder
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            String line;
+            int inFlight = 0;
+            while ((line = in.readLine()) != null) {
+                String name = line.trim();
+                if (name.isEmpty())
+                    continue;
+                names++;
+                if (inputOrder)
+                    pending.add(executor.submit(() -> toJson(name)));
+                else
+                    completed.submit(() -> toJson(name));
+                if (++inFlight < maxPending)
+                    continue;
+                write(out, inputOrder ? pending.remove() : completed.take());
+                inFlight--;
+                // write whatever else is done without waiting
+                for (Future<String> done; (done = inputOrder ? doneHead(pending) : completed.poll()) != null; inFlight--) {
+                    if (inputOrder)
+                        pending.remove();
+                    write(out, done);
+                }
+            }
+            for (; inFlight > 0; inFlight--) {
+                write(out, inputOrder ? pending.remove() : completed.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch lookup was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Lookup failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("Looked up %d names in %.1f s (%.0f/s): %d exact, %d alias, %d suggestion, %d not found",
+                names, seconds, names / seconds, exact.sum(), alias.sum(), suggestion.sum(), none.sum()));
+    }
+
+    private static Future<String> doneHead(Queue<Future<String>> pending) {
+        Future<String> head = pending.peek();
+        return head != null && head.isDone() ? head : null;
+    }
+
+    private static void write(BufferedWriter out, Future<String> result) throws IOException, InterruptedException, ExecutionException {
+        out.write(result.get());
+        out.newLine();
+    }
+
+    // exact title first, then titles of articles that have name as alternate name, then the closest suggested name
+    String toJson(String name) throws IOException, ParseException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"name\":");
+        quote(json, name);
+        AliasRecord record = Indexer.lookupTitle(name);
+        List<String> titles;
+        if (record != null) {
+            exact.increment();
+            json.append(",\"match\":\"exact\"");
+            titles = Collections.singletonList(record.title);
+        }
+        else if (!(titles = Indexer.resolveAlias(name)).isEmpty()) {
+            alias.increment();
+            json.append(",\"match\":\"alias\"");
+        }
+        else {
+            List<AliasResolver.Completion> suggestions = Indexer.suggest(name, 1);
+            if (suggestions == null || suggestions.isEmpty()) {
+                none.increment();
+                return json.append(",\"match\":\"none\",\"articles\":[]}").toString();
+            }
+            suggestion.increment();
+            json.append(",\"match\":\"suggestion\",\"suggestion\":");
+            quote(json, suggestions.get(0).name);
+            titles = suggestions.get(0).titles;
+        }
+        json.append(",\"articles\":");
+        appendArticles(json, titles, record);
+        return json.append('}').toString();
+    }
+
+    // array of articles with their alternate names and tags, record = alternate names of the only title if they are known already
+    static void appendArticles(StringBuilder json, List<String> titles, AliasRecord record) throws IOException, ParseException {
+        json.append('[');
+        for (int i = 0; i < titles.size(); i++) {
+            String title = titles.get(i);
+            AliasRecord article = record != null ? record : Indexer.lookupTitle(title);
+            json.append(i == 0 ? "{\"title\":" : ",{\"title\":");
+            quote(json, title);
+            json.append(",\"aliases\":");
+            quote(json, article == null ? Collections.<String>emptyList() : article.alternateNames);
+            json.append(",\"tags\":");
+            quote(json, Indexer.getTags(title));
+            json.append('}');
+        }
+        json.append(']');
+    }
+
+    static void quote(StringBuilder json, Collection<String> values) {
+        json.append('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first)
+                json.append(',');
+            quote(json, value);
+            first = false;
+        }
+        json.append(']');
+    }
+
+    static void quote(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                json.append('\\').append(c);
+            else if (c == '\n')
+                json.append("\\n");
+            else if (c == '\t')
+                json.append("\\t");
+            else if (c < 0x20)
+                json.append(String.format("\\u%04x", (int) c));
+            else
+                json.append(c);
+        }
+        json.append('"');
+    }
+}
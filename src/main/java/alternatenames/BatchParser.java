@@ -0,0 +1,84 @@
+package alternatenames;
+
+import org.apache.lucene.index.IndexWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// parse several partial dumps in parallel, each into its own index, and add them to the main index at the end
+public class BatchParser {
+
+    private static final String PARTS_PATH = Indexer.INDEX_PATH + ".parts";
+
+    // maxSegments > 0 merges the final index into that many segments
+    public static void parse(List<String> fileNames, int threads, int maxSegments) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < fileNames.size(); i++) {
+            String fileName = fileNames.get(i);
+            String path = PARTS_PATH + File.separator + i;
+            futures.add(executor.submit(() -> parseFile(fileName, path)));
+        }
+        List<String> paths = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                // a failed file does not stop the others, its index is left out
+                try {
+                    paths.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    failed.add(fileNames.get(i));
+                    System.err.println("Parsing of " + fileNames.get(i) + " failed: " + e.getCause());
+                    deleteDirectory(Paths.get(PARTS_PATH, String.valueOf(i)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Parsing was interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Indexer.initWriter();
+        Indexer.addIndexes(paths, maxSegments);
+        for (String path : paths) {
+            deleteDirectory(Paths.get(path));
+        }
+        Parser.printStatistics(); // ** STATISTICS **
+        if (!failed.isEmpty())
+            System.out.println("Failed files: " + String.join(", ", failed));
+    }
+
+    private static String parseFile(String fileName, String path) throws IOException {
+        try (PageScanner in = PageScanner.open(fileName);
+             IndexWriter writer = Indexer.createWriter(path)) {
+            Parser.parse(in, writer);
+        }
+        return path;
+    }
+
+    private static void deleteDirectory(Path path) throws IOException {
+        if (!Files.exists(path))
+            return;
+        try (Stream<Path> files = Files.walk(path)) {
+            List<Path> sorted = files.collect(Collectors.toList());
+            Collections.sort(sorted, Comparator.reverseOrder()); // delete files before their directory
+            for (Path file : sorted) {
+                Files.delete(file);
+            }
+        }
+    }
+}
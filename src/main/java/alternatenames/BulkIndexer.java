@@ -0,0 +1,155 @@
+package alternatenames;
+
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntField;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.util.BytesRef;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// bulk load: the calling thread reads pages, every indexing thread extracts alternate names and adds them to the shared writer
+// with its own reusable document, the writer flushes by RAM only and merges in the background (see Indexer.bulkThreads)
+public class BulkIndexer {
+
+    private static final WikiPage END_OF_PAGES = new WikiPage(null, null);
+
+    // document of one alternate name with the fields of Indexer.createDocument, the values are replaced for every name
+    private static class ReusableDocument {
+        final Document document = new Document();
+        final Field title = new TextField("title", "", Field.Store.YES);
+        final Field titleLowerCase = new TextField("titleLowerCase", "", Field.Store.YES);
+        final Field infoboxName = new TextField("infoboxName", "", Field.Store.YES);
+        final Field alternateName = new TextField("alternateName", "", Field.Store.YES);
+        final Field fullText = new TextField("fullText", "", Field.Store.YES);
+        final Field tag = new StringField("tag", "", Field.Store.YES);
+        final IntField frequency = new IntField("frequency", 0, Field.Store.YES);
+        final SortedDocValuesField titleValue = new SortedDocValuesField("title", new BytesRef());
+        final SortedSetDocValuesField tagValue = new SortedSetDocValuesField("tag", new BytesRef());
+        final NumericDocValuesField frequencyValue = new NumericDocValuesField("frequency", 0);
+
+        ReusableDocument() {
+            document.add(title);
+            document.add(titleLowerCase);
+            document.add(infoboxName);
+            document.add(alternateName);
+            document.add(fullText);
+            document.add(tag);
+            document.add(frequency);
+            document.add(titleValue);
+            document.add(tagValue);
+            document.add(frequencyValue);
+        }
+
+        // add one document per alternate name, values shared by all names of the record are set once
+        void addRecord(AliasRecord record) throws IOException {
+            if (record.alternateNames.isEmpty())
+                return;
+            long start = System.nanoTime();
+            String tagLowerCase = record.tag.toLowerCase();
+            String titleLowerCaseValue = record.title.toLowerCase();
+            title.setStringValue(record.title);
+            titleLowerCase.setStringValue(titleLowerCaseValue);
+            infoboxName.setStringValue(record.infoboxName);
+            tag.setStringValue(tagLowerCase);
+            frequency.setIntValue(record.alternateNames.size());
+            titleValue.setBytesValue(new BytesRef(record.title));
+            tagValue.setBytesValue(new BytesRef(tagLowerCase));
+            frequencyValue.setLongValue(record.alternateNames.size());
+            for (String name : record.alternateNames) {
+                alternateName.setStringValue(name);
+                fullText.setStringValue(titleLowerCaseValue + " " + name.toLowerCase());
+                Indexer.writer.addDocument(document);
+            }
+            IngestMetrics.get().addIndexed(System.nanoTime() - start, record.alternateNames.size());
+        }
+    }
+
+    // maxSegments > 0 merges the index into that many segments when all pages are indexed
+    public static void parse(String fileName, int threads, int maxSegments) throws IOException, CompressorException {
+        PageScanner in = PageScanner.open(fileName);
+        Indexer.bulkThreads = threads;
+        Indexer.initWriter();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        BlockingQueue<WikiPage> pages = new ArrayBlockingQueue<>(threads * 256);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    index(pages);
+                    return null;
+                }));
+            }
+            try {
+                WikiPage page;
+                while ((page = in.next()) != null) {
+                    while (!pages.offer(page, 1, TimeUnit.SECONDS)) {
+                        checkFailures(futures);
+                    }
+                }
+            } finally {
+                for (int i = 0; i < threads; i++) {
+                    while (!pages.offer(END_OF_PAGES, 1, TimeUnit.SECONDS)) {
+                        checkFailures(futures);
+                    }
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Bulk load was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Bulk load failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            in.close();
+        }
+        if (maxSegments > 0)
+            Indexer.writer.forceMerge(maxSegments);
+        Indexer.writer.commit();
+        Parser.printStatistics(); // ** STATISTICS **
+    }
+
+    private static void index(BlockingQueue<WikiPage> pages) throws IOException, InterruptedException {
+        ReusableDocument reusable = new ReusableDocument();
+        List<Document> documents = new ArrayList<>();
+        WikiPage page;
+        while ((page = pages.take()) != END_OF_PAGES) {
+            List<AliasRecord> records = Parser.extractPage(page);
+            if (Indexer.compactSchema) { // one new document per article
+                Indexer.createDocuments(records, documents);
+                if (!documents.isEmpty())
+                    Indexer.addDocuments(documents);
+                documents.clear();
+                continue;
+            }
+            for (AliasRecord record : records) {
+                reusable.addRecord(record);
+            }
+        }
+    }
+
+    // stop waiting for free space in the queue if an indexing thread failed
+    private static void checkFailures(List<Future<?>> futures) throws InterruptedException, ExecutionException {
+        for (Future<?> future : futures) {
+            if (future.isDone())
+                future.get();
+        }
+    }
+}
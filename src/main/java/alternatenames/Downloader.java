@@ -0,0 +1,187 @@
+package alternatenames;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.*;
+
+// download the partial dumps listed in the checksum file of the dump on a few connections at once,
+// an interrupted download is kept in <file>.part and continued with a range request, every file is verified against its MD5
+public class Downloader {
+
+    public static String baseUrl = "https://dumps.wikimedia.org/enwiki/latest/"; // or a mirror, or a local server with test dumps
+    public static String directory = "./src/main/resources/";
+    public static int connections = 3; // downloads at the same time
+    private static final int ATTEMPTS = 5;
+    private static final String CHECKSUMS = "enwiki-latest-md5sums.txt"; // lines of "<md5>  <file name>"
+    private static final Pattern PARTIAL_DUMP = Pattern.compile("enwiki-latest-pages-articles[0-9]+\\.xml-p[0-9]+p[0-9]+\\.bz2");
+
+    // download all partial wiki articles dumps, return the names of downloaded files
+    public static List<String> download() throws IOException {
+        List<String> fileNames = new ArrayList<>();
+        for (Future<String> download : startDownloads()) {
+            fileNames.add(await(download));
+        }
+        return fileNames;
+    }
+
+    // start downloading all partial dumps, the futures are in the order of the dump and complete with the name of the verified file
+    public static List<Future<String>> startDownloads() throws IOException {
+        Map<String, String> files = listFiles();
+        ExecutorService executor = Executors.newFixedThreadPool(connections, r -> {
+            Thread thread = new Thread(r, "download");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<String>> downloads = new ArrayList<>();
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            downloads.add(executor.submit(() -> download(file.getKey(), file.getValue())));
+        }
+        executor.shutdown(); // downloads that were submitted still run
+        return downloads;
+    }
+
+    // name of the downloaded file
+    public static String await(Future<String> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download was interrupted");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException("Download failed", e.getCause());
+        }
+    }
+
+    // file name -> MD5 of all partial dumps, MD5 is null if the dump has no checksum file
+    private static Map<String, String> listFiles() throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new URL(baseUrl + CHECKSUMS).openStream()))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length == 2 && PARTIAL_DUMP.matcher(fields[1]).matches())
+                    files.put(fields[1], fields[0].toLowerCase());
+            }
+            return files;
+        } catch (FileNotFoundException e) {
+            System.err.println("No " + CHECKSUMS + " at " + baseUrl + ", downloads are not verified");
+        }
+        // links of the listing of the dump
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new URL(baseUrl).openStream()))) {
+            Pattern pattern = Pattern.compile("(?:<a\\s+href\\s*=\\s*\")(enwiki-latest-pages-articles[0-9]+[^\"]*[^xml])(?:\"\\s*>)", Pattern.CASE_INSENSITIVE);
+            String line;
+            while ((line = in.readLine()) != null) {
+                Matcher matcher = pattern.matcher(line);
+                if (matcher.find())
+                    files.put(matcher.group(1), null);
+            }
+        }
+        return files;
+    }
+
+    // retry failed downloads, continuing after the bytes that were already received
+    private static String download(String fileName, String md5) throws IOException {
+        Path path = Paths.get(directory, fileName);
+        Path part = Paths.get(directory, fileName + ".part");
+        if (Files.exists(path) && (md5 == null || md5.equals(md5(path))))
+            return fileName;
+        IOException failure = null;
+        for (int attempt = 1; attempt <= ATTEMPTS; attempt++) {
+            try {
+                String actual = transfer(new URL(baseUrl + fileName), part);
+                if (md5 != null && !md5.equals(actual)) {
+                    Files.delete(part); // start again from the beginning
+                    throw new IOException("Checksum of " + fileName + " is " + actual + " instead of " + md5);
+                }
+                Files.move(part, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                System.err.println("Downloaded " + fileName);
+                return fileName;
+            } catch (IOException e) {
+                failure = e;
+                System.err.println("Downloading " + fileName + " failed (attempt " + attempt + " of " + ATTEMPTS + "): " + e);
+            }
+            try {
+                Thread.sleep(1000L << attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Download was interrupted");
+            }
+        }
+        throw failure;
+    }
+
+    // append the rest of url to part, return the MD5 of the whole part
+    private static String transfer(URL url, Path part) throws IOException {
+        long offset = Files.exists(part) ? Files.size(part) : 0;
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(30_000);
+        connection.setReadTimeout(60_000);
+        if (offset > 0)
+            connection.setRequestProperty("Range", "bytes=" + offset + "-");
+        int status = connection.getResponseCode();
+        if (status == 416 && offset > 0) { // nothing after offset, part is complete
+            connection.disconnect();
+            return md5(part);
+        }
+        if (status != HttpURLConnection.HTTP_OK && !(status == HttpURLConnection.HTTP_PARTIAL && offset > 0)) {
+            connection.disconnect();
+            throw new IOException("HTTP " + status + " for " + url);
+        }
+        boolean append = status == HttpURLConnection.HTTP_PARTIAL;
+        MessageDigest digest = append ? digest(part) : newDigest();
+        OpenOption[] options = append ? new OpenOption[]{StandardOpenOption.APPEND}
+                : new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+        try (InputStream in = connection.getInputStream(); OutputStream out = Files.newOutputStream(part, options)) {
+            byte[] buffer = new byte[1 << 16];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+                out.write(buffer, 0, n);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String md5(Path path) throws IOException {
+        return toHex(digest(path).digest());
+    }
+
+    private static MessageDigest digest(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[1 << 16];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return digest;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package alternatenames;
+
+// time budget for extracting the alternate names of one page on the current thread, a page that exceeds it is cut short;
+// regular expressions read their input through a CharSequence that checks the budget, so that catastrophic backtracking
+// on a malformed infobox is stopped too (java.util.regex cannot be interrupted by another thread)
+public class ExtractionBudget {
+
+    public static long budgetNanos = 1_000_000_000L; // per page, 0 = no budget
+    public static int maxTemplateChars = 1 << 16; // a parameter value that is longer is skipped
+
+    private static final int CHECK_INTERVAL = 1 << 12; // characters read by a matcher between two checks of the clock
+    private static final ThreadLocal<long[]> DEADLINE = ThreadLocal.withInitial(() -> new long[1]); // 0 = no deadline
+
+    // thrown by check and by matchers once the budget of the page is used up
+    public static class Exceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Exceeded() {
+            super("extraction took longer than " + budgetNanos / 1_000_000 + " ms", null, false, false);
+        }
+    }
+
+    // start the budget of a new page
+    public static void start() {
+        DEADLINE.get()[0] = budgetNanos > 0 ? System.nanoTime() + budgetNanos : 0;
+    }
+
+    public static void stop() {
+        DEADLINE.get()[0] = 0;
+    }
+
+    public static void check() {
+        long deadline = DEADLINE.get()[0];
+        if (deadline != 0 && System.nanoTime() - deadline > 0)
+            throw new Exceeded();
+    }
+
+    // input for Pattern.matcher and Pattern.split that throws Exceeded when the budget is used up while it is matched
+    public static CharSequence guard(String s) {
+        long deadline = DEADLINE.get()[0];
+        return deadline == 0 ? s : new GuardedSequence(s, deadline);
+    }
+
+    private static class GuardedSequence implements CharSequence {
+        private final String s;
+        private final long deadline;
+        private int reads;
+
+        GuardedSequence(String s, long deadline) {
+            this.s = s;
+            this.deadline = deadline;
+        }
+
+        public char charAt(int index) {
+            if (++reads % CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0)
+                throw new Exceeded();
+            return s.charAt(index);
+        }
+
+        public int length() {
+            return s.length();
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return new GuardedSequence(s.substring(start, end), deadline);
+        }
+
+        public String toString() {
+            return s;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package alternatenames;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.MultiDocValues;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.OfflineSorter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// rewrite an index with one document per alternate name and tag into the compact schema with one document per article
+// usage: IndexMigration <source index> <target index> [--merge <segments>]
+public class IndexMigration {
+
+    private static final Set<String> FIELDS = new HashSet<>(Arrays.asList(
+            "title", "infoboxName", "alternateName", "tag", "alternateNameTag", "alternateNameInfobox"));
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: IndexMigration <source index> <target index> [--merge <segments>]");
+            return;
+        }
+        int maxSegments = 0;
+        for (int i = 2; i < args.length; i++) {
+            if ("--merge".equals(args[i]))
+                maxSegments = Integer.parseInt(args[++i]);
+        }
+        migrate(args[0], args[1], maxSegments);
+    }
+
+    // documents of one article may be spread over several segments, they are read in title order, so that only the current
+    // article is kept in memory (the order of indexes written without doc values is sorted on disk next to the target)
+    public static void migrate(String sourcePath, String targetPath, int maxSegments) throws IOException {
+        int documents = 0;
+        try (Directory source = FSDirectory.open(Paths.get(sourcePath).toFile());
+             IndexReader reader = DirectoryReader.open(source);
+             IndexWriter writer = Indexer.createWriter(targetPath)) {
+            Bits liveDocs = MultiFields.getLiveDocs(reader);
+            ArticleWriter articles = new ArticleWriter(writer);
+            int[] order = documentsByTitle(reader, liveDocs);
+            if (order == null) {
+                System.out.println("Index has no title doc values, sorting documents by stored title");
+                order = documentsByStoredTitle(reader, liveDocs, Paths.get(targetPath).toAbsolutePath().getParent());
+            }
+            String title = null;
+            Map<String, List<String>> article = new LinkedHashMap<>();
+            for (int doc : order) {
+                Document document = reader.document(doc, FIELDS);
+                if (!document.get("title").equals(title)) {
+                    articles.add(title, article);
+                    title = document.get("title");
+                    article = new LinkedHashMap<>();
+                }
+                addDocument(document, article);
+                documents++;
+            }
+            articles.add(title, article);
+            articles.flush();
+            if (maxSegments > 0)
+                writer.forceMerge(maxSegments);
+            writer.commit();
+            System.out.println("Migrated " + documents + " documents into " + articles.written + " articles");
+        }
+    }
+
+    // ids of live documents sorted by title (counting sort by ordinal), null if some document has no title doc value
+    private static int[] documentsByTitle(IndexReader reader, Bits liveDocs) throws IOException {
+        SortedDocValues titles = MultiDocValues.getSortedValues(reader, "title");
+        if (titles == null)
+            return null;
+        int[] starts = new int[titles.getValueCount() + 1];
+        int live = 0;
+        for (int doc = 0; doc < reader.maxDoc(); doc++) {
+            if (liveDocs != null && !liveDocs.get(doc))
+                continue;
+            int ord = titles.getOrd(doc);
+            if (ord < 0)
+                return null; // segment written without doc values
+            starts[ord + 1]++;
+            live++;
+        }
+        for (int ord = 1; ord < starts.length; ord++) {
+            starts[ord] += starts[ord - 1];
+        }
+        int[] order = new int[live];
+        for (int doc = 0; doc < reader.maxDoc(); doc++) {
+            if (liveDocs == null || liveDocs.get(doc))
+                order[starts[titles.getOrd(doc)]++] = doc;
+        }
+        return order;
+    }
+
+    // ids of live documents sorted by stored title, (title, 0 byte, id) entries are sorted on disk in byte order like the doc values,
+    // the 0 byte keeps the documents of a title before those of longer titles that start with it
+    private static int[] documentsByStoredTitle(IndexReader reader, Bits liveDocs, Path tempDir) throws IOException {
+        Path unsorted = Files.createTempFile(tempDir, "titles", ".unsorted");
+        Path sorted = Files.createTempFile(tempDir, "titles", ".sorted");
+        try {
+            Set<String> titleField = Collections.singleton("title");
+            int live = 0;
+            try (OfflineSorter.ByteSequencesWriter out = new OfflineSorter.ByteSequencesWriter(unsorted.toFile())) {
+                for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                    if (liveDocs != null && !liveDocs.get(doc))
+                        continue;
+                    byte[] title = reader.document(doc, titleField).get("title").getBytes(StandardCharsets.UTF_8);
+                    byte[] entry = Arrays.copyOf(title, title.length + 1 + 4);
+                    ByteBuffer.wrap(entry, title.length + 1, 4).putInt(doc);
+                    out.write(entry);
+                    live++;
+                }
+            }
+            new OfflineSorter(OfflineSorter.DEFAULT_COMPARATOR, OfflineSorter.BufferSize.automatic(), tempDir.toFile(), OfflineSorter.MAX_TEMPFILES)
+                    .sort(unsorted.toFile(), sorted.toFile());
+            int[] order = new int[live];
+            try (OfflineSorter.ByteSequencesReader in = new OfflineSorter.ByteSequencesReader(sorted.toFile())) {
+                for (int i = 0; i < live; i++) {
+                    byte[] entry = in.read();
+                    order[i] = ByteBuffer.wrap(entry, entry.length - 4, 4).getInt();
+                }
+            }
+            return order;
+        } finally {
+            Files.deleteIfExists(unsorted);
+            Files.deleteIfExists(sorted);
+        }
+    }
+
+    // add alternate names of a document of either schema to the article, key of the article is tag and infobox name
+    private static void addDocument(Document document, Map<String, List<String>> article) {
+        String tag = document.get("tag");
+        if (tag == null) { // already compact
+            String[] alternateNames = document.getValues("alternateName");
+            String[] tags = document.getValues("alternateNameTag");
+            String[] infoboxNames = document.getValues("alternateNameInfobox");
+            for (int j = 0; j < alternateNames.length; j++) {
+                article.computeIfAbsent(tags[j] + '\n' + infoboxNames[j], k -> new ArrayList<>()).add(alternateNames[j]);
+            }
+        }
+        else if (!"all_tags".equals(tag)) {
+            article.computeIfAbsent(tag + '\n' + document.get("infoboxName"), k -> new ArrayList<>()).add(document.get("alternateName"));
+        }
+    }
+
+    // writes one compact document per article in batches
+    private static class ArticleWriter {
+        private final IndexWriter writer;
+        private final List<Document> batch = new ArrayList<>();
+        int written;
+
+        ArticleWriter(IndexWriter writer) {
+            this.writer = writer;
+        }
+
+        void add(String title, Map<String, List<String>> article) throws IOException {
+            if (title == null)
+                return;
+            List<AliasRecord> records = new ArrayList<>();
+            for (Map.Entry<String, List<String>> values : article.entrySet()) {
+                String[] key = values.getKey().split("\n", 2);
+                records.add(new AliasRecord(title, key[1], key[0], values.getValue()));
+            }
+            Document document = Indexer.createArticleDocument(records);
+            if (document == null)
+                return;
+            batch.add(document);
+            written++;
+            if (batch.size() >= 1000)
+                flush();
+        }
+
+        void flush() throws IOException {
+            writer.addDocuments(batch);
+            batch.clear();
+        }
+    }
+}
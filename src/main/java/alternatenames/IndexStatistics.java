@@ -0,0 +1,133 @@
+package alternatenames;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiDocValues;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// tag and alternate name statistics of an index, computed in one pass over doc values of title, tag, frequency and tagFrequencies
+public class IndexStatistics {
+
+    private static final int HIST_SIZE = IngestMetrics.ALTERNATE_NAMES_HIST_SIZE;
+
+    public final Map<String, Long> alternateNames = new TreeMap<>(); // tag -> number of alternate names
+    public final Map<String, Long> distinctTitles = new TreeMap<>(); // tag -> number of articles with alternate names in the tag
+    public final Map<String, long[]> histograms = new TreeMap<>(); // tag -> number of parameters with the given number of alternate names
+    public long articles; // distinct titles of the index
+
+    // null if the index was written without doc values
+    public static IndexStatistics compute(IndexReader reader) throws IOException {
+        SortedDocValues titles = MultiDocValues.getSortedValues(reader, "title");
+        SortedSetDocValues tags = MultiDocValues.getSortedSetValues(reader, "tag");
+        NumericDocValues frequencies = MultiDocValues.getNumericValues(reader, "frequency");
+        if (titles == null || tags == null || frequencies == null)
+            return null;
+        BinaryDocValues tagFrequencies = MultiDocValues.getBinaryValues(reader, "tagFrequencies"); // only compact schema
+        Bits liveDocs = MultiFields.getLiveDocs(reader);
+
+        int tagCount = (int) tags.getValueCount();
+        String[] tagNames = new String[tagCount];
+        long[] names = new long[tagCount];
+        double[][] records = new double[tagCount][HIST_SIZE]; // parameters per tag and frequency, from one document per alternate name without tagFrequencies
+        FixedBitSet[] titlesPerTag = new FixedBitSet[tagCount];
+        for (int t = 0; t < tagCount; t++) {
+            tagNames[t] = tags.lookupOrd(t).utf8ToString();
+            titlesPerTag[t] = new FixedBitSet(titles.getValueCount());
+        }
+        Map<String, Integer> tagOrds = new TreeMap<>();
+        for (int t = 0; t < tagCount; t++) {
+            tagOrds.put(tagNames[t], t);
+        }
+        Integer allTags = tagOrds.get("all_tags");
+        FixedBitSet allTitles = new FixedBitSet(titles.getValueCount());
+        long[][] parameters = new long[tagCount][HIST_SIZE]; // parameters of articles of the compact schema
+
+        for (int doc = 0; doc < reader.maxDoc(); doc++) {
+            if (liveDocs != null && !liveDocs.get(doc))
+                continue;
+            int title = titles.getOrd(doc);
+            if (title < 0)
+                continue;
+            allTitles.set(title);
+            long frequency = frequencies.get(doc);
+            int bucket = (int) Math.min(frequency, HIST_SIZE - 1);
+            BytesRef encoded = tagFrequencies == null ? null : tagFrequencies.get(doc);
+            tags.setDocument(doc);
+            if (encoded == null || encoded.length == 0) { // one document per alternate name
+                for (long ord = tags.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = tags.nextOrd()) {
+                    names[(int) ord]++;
+                    records[(int) ord][bucket] += 1.0 / Math.max(frequency, 1); // every parameter with f alternate names has f documents
+                    titlesPerTag[(int) ord].set(title);
+                }
+                continue;
+            }
+            for (long ord = tags.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = tags.nextOrd()) {
+                titlesPerTag[(int) ord].set(title);
+            }
+            // tag\tfrequency lines of one article
+            if (allTags != null) {
+                names[allTags] += frequency;
+                parameters[allTags][bucket]++;
+            }
+            for (String line : encoded.utf8ToString().split("\n")) {
+                int tab = line.indexOf('\t');
+                Integer ord = tab < 0 ? null : tagOrds.get(line.substring(0, tab));
+                if (ord == null)
+                    continue;
+                int count = Integer.parseInt(line.substring(tab + 1));
+                names[ord] += count;
+                parameters[ord][Math.min(count, HIST_SIZE - 1)]++;
+            }
+        }
+
+        IndexStatistics statistics = new IndexStatistics();
+        statistics.articles = allTitles.cardinality();
+        for (int t = 0; t < tagCount; t++) {
+            long[] histogram = parameters[t];
+            for (int f = 1; f < HIST_SIZE; f++) {
+                histogram[f] += Math.round(records[t][f]);
+            }
+            statistics.alternateNames.put(tagNames[t], names[t]);
+            statistics.distinctTitles.put(tagNames[t], (long) titlesPerTag[t].cardinality());
+            statistics.histograms.put(tagNames[t], histogram);
+        }
+        return statistics;
+    }
+
+    public void print() {
+        System.out.println("----------------");
+        System.out.println("Total articles with alternate names: " + articles);
+        for (String tag : alternateNames.keySet()) {
+            System.out.println("Alternate names found in parameter " + tag + ": " + alternateNames.get(tag)
+                    + " (" + distinctTitles.get(tag) + " articles)");
+        }
+    }
+
+    // same format as Parser.printHistogram
+    public void printHistogram() {
+        List<String> tags = new ArrayList<>(histograms.keySet());
+        for (int t = 0; t < tags.size(); t++) {
+            System.out.println(t == 0 ? "----------------" : "");
+            System.out.println(tags.get(t));
+            long[] histogram = histograms.get(tags.get(t));
+            for (int i = histogram.length - 1; i > 0; i--) {
+                if (histogram[i] != 0) {
+                    for (int j = 1; j <= i; j++)
+                        System.out.println(j + ": " + histogram[j]);
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package alternatenames;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.Version;
+
+public class Indexer {
+
+    public static final String INDEX_PATH = "./src/main/resources/index.lucene";
+    public static final String DICTIONARY_PATH = INDEX_PATH + ".titles";
+    public static final String RESOLVER_PATH = INDEX_PATH + ".aliases";
+    public static final String SUGGESTER_PATH = INDEX_PATH + ".suggest";
+
+    public static StandardAnalyzer analyzer;
+    public static Directory index;
+    public static IndexWriterConfig config;
+    public static IndexWriter writer;
+    public static IndexReader reader;
+    public static IndexSearcher searcher;
+    public static SearcherLifecycle searchers; // searchers that follow the index while it is written, null = use searcher
+    public static boolean rebuild = false; // create the index anew, searchers keep the previous one until publish
+    public static volatile TitleDictionary titleDictionary; // null if the dictionary was not built
+    public static volatile AliasResolver aliasResolver; // null if the resolver was not built
+    public static volatile SpellingSuggester spellingSuggester; // null if the suggester was not built
+    public static volatile boolean rollbackOnExit = false; // discard changes after the last checkpoint instead of committing them on exit
+    // documents with all alternate names of an article, one per article in either schema
+    private static final Filter ARTICLES = new CachingWrapperFilter(new QueryWrapperFilter(new TermQuery(new Term("tag", "all_tags"))));
+    private static final int PAGE_SIZE = 1000; // hits loaded at once when all results are needed
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    private static final Set<String> TAG_FIELDS = new HashSet<>(Arrays.asList("title", "tag", "alternateNameTag"));
+    private static final int MAX_TITLE_DOCUMENTS = 10000; // documents of one title searched for its tags at most
+    // query parsers are not thread-safe, every thread keeps one per field
+    private static final ThreadLocal<Map<String, QueryParser>> PARSERS = ThreadLocal.withInitial(HashMap::new);
+    public static final QueryCache queryCache = new QueryCache(10000, 64L << 20);
+
+    public static boolean compactSchema = false; // one document per article instead of one per alternate name and tag
+    public static int bulkThreads = 0; // > 0 = writer is tuned for bulk load by that many indexing threads, see BulkIndexer
+    public static double bulkRamBufferMB = 512;
+
+    // initialize writer to enable writing to the index, a writer that is already open is kept,
+    // so that several files are parsed into the same index (bulk load settings apply only when it is first opened)
+    public static void initWriter() throws IOException {
+        if (writer != null)
+            return;
+        Runtime.getRuntime().addShutdownHook(new MessageWriter());
+        analyzer = new StandardAnalyzer();
+        index = FSDirectory.open(Paths.get(INDEX_PATH).toFile());
+        config = new IndexWriterConfig(Version.LATEST, analyzer);
+        if (rebuild)
+            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        if (bulkThreads > 0)
+            configureBulkLoad(config, bulkThreads);
+        writer = new IndexWriter(index, config);
+        if (searchers != null && !rebuild)
+            searchers.switchTo(new SearcherManager(writer, true, null)); // documents become searchable at the next refresh
+    }
+
+    // serve searches from the current index while it is being written, near-real-time readers are refreshed every refreshSeconds
+    public static void openSearchers(int refreshSeconds) throws IOException {
+        if (analyzer == null)
+            analyzer = new StandardAnalyzer();
+        searchers = new SearcherLifecycle(rebuild ? 0 : refreshSeconds); // refreshing would show the partially rebuilt index
+        Directory directory = FSDirectory.open(Paths.get(INDEX_PATH).toFile());
+        if (DirectoryReader.indexExists(directory))
+            searchers.switchTo(new SearcherManager(directory, null)); // last commit until the writer is opened (or published with rebuild)
+        loadLookups();
+    }
+
+    // commit and switch searchers to the finished index together with its lookups,
+    // searches that are running keep their reader until they release it
+    public static void publish() throws IOException {
+        if (searchers == null)
+            return;
+        writer.commit();
+        loadLookups();
+        searchers.switchTo(new SearcherManager(writer, true, null));
+    }
+
+    // flush by RAM only, merge large segments in the background with several threads and skip compound files
+    private static void configureBulkLoad(IndexWriterConfig writerConfig, int threads) {
+        writerConfig.setRAMBufferSizeMB(bulkRamBufferMB);
+        writerConfig.setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+        writerConfig.setMaxThreadStates(Math.max(threads, IndexWriterConfig.DEFAULT_MAX_THREAD_STATES));
+        writerConfig.setUseCompoundFile(false);
+        TieredMergePolicy mergePolicy = new TieredMergePolicy();
+        mergePolicy.setSegmentsPerTier(20);
+        mergePolicy.setMaxMergeAtOnce(20);
+        mergePolicy.setMaxMergedSegmentMB(5 * 1024);
+        mergePolicy.setNoCFSRatio(0.0);
+        writerConfig.setMergePolicy(mergePolicy);
+        int cores = Runtime.getRuntime().availableProcessors();
+        ConcurrentMergeScheduler mergeScheduler = new ConcurrentMergeScheduler();
+        mergeScheduler.setMaxMergesAndThreads(Math.max(2, cores / 2) + 2, Math.max(2, cores / 2));
+        writerConfig.setMergeScheduler(mergeScheduler);
+    }
+
+    // create a separate writer for a new index in path, caller is responsible for closing it
+    public static IndexWriter createWriter(String path) throws IOException {
+        Directory directory = FSDirectory.open(Paths.get(path).toFile());
+        IndexWriterConfig writerConfig = new IndexWriterConfig(Version.LATEST, new StandardAnalyzer());
+        writerConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        return new IndexWriter(directory, writerConfig);
+    }
+
+    // add indexes in paths to the index, optionally merge the result into maxSegments segments
+    public static void addIndexes(List<String> paths, int maxSegments) throws IOException {
+        Directory[] directories = new Directory[paths.size()];
+        try {
+            for (int i = 0; i < paths.size(); i++) {
+                directories[i] = FSDirectory.open(Paths.get(paths.get(i)).toFile());
+            }
+            writer.addIndexes(directories);
+            if (maxSegments > 0)
+                writer.forceMerge(maxSegments);
+            writer.commit();
+        } finally {
+            for (Directory directory : directories) {
+                if (directory != null)
+                    directory.close();
+            }
+        }
+    }
+
+    // initialize reader to enable reading from the index
+    public static void initReader() throws IOException {
+        Runtime.getRuntime().addShutdownHook(new MessageReader());
+        analyzer = new StandardAnalyzer();
+        index = FSDirectory.open(Paths.get(INDEX_PATH).toFile());
+        config = new IndexWriterConfig(Version.LATEST, analyzer);
+        reader = DirectoryReader.open(index);
+        searcher = new IndexSearcher(reader);
+        loadLookups();
+    }
+
+    private static void loadLookups() throws IOException {
+        if (Files.exists(Paths.get(DICTIONARY_PATH)))
+            titleDictionary = TitleDictionary.open(Paths.get(DICTIONARY_PATH));
+        if (Files.exists(Paths.get(RESOLVER_PATH)))
+            aliasResolver = AliasResolver.open(Paths.get(RESOLVER_PATH));
+        if (aliasResolver != null && Files.exists(Paths.get(SUGGESTER_PATH)))
+            spellingSuggester = SpellingSuggester.open(Paths.get(SUGGESTER_PATH), aliasResolver); // refers to names of this resolver
+    }
+
+    // commit the index and write the title dictionary, the alias resolver and the spelling suggester of all its articles
+    public static void buildLookups() throws IOException {
+        writer.commit();
+        try (DirectoryReader indexReader = DirectoryReader.open(writer, true)) {
+            TitleDictionary.build(indexReader, Paths.get(DICTIONARY_PATH));
+            AliasResolver resolver = AliasResolver.build(indexReader);
+            resolver.save(Paths.get(RESOLVER_PATH));
+            SpellingSuggester.build(resolver).save(Paths.get(SUGGESTER_PATH));
+        }
+    }
+
+    // alternate names of the article with exactly this title (ignoring case), null if it is not in the title dictionary
+    public static AliasRecord lookupTitle(String title) {
+        return titleDictionary == null ? null : titleDictionary.lookup(title);
+    }
+
+    // titles of articles that have name as title or alternate name, empty if there are none or the resolver was not built
+    public static List<String> resolveAlias(String name) throws IOException {
+        return aliasResolver == null ? Collections.<String>emptyList() : aliasResolver.resolve(name);
+    }
+
+    // at most n titles and alternate names starting with prefix, articles with more alternate names first
+    public static List<AliasResolver.Completion> complete(String prefix, int n) throws IOException {
+        return aliasResolver == null ? Collections.<AliasResolver.Completion>emptyList() : aliasResolver.complete(prefix, n);
+    }
+
+    // at most n titles and alternate names similar to a misspelled query, null if the suggester was not built
+    public static List<AliasResolver.Completion> suggest(String query, int n) {
+        return spellingSuggester == null ? null : spellingSuggester.suggest(query, n);
+    }
+
+    // commit the index together with user data describing how far the ingest got
+    public static synchronized void commit(Map<String, String> userData) throws IOException {
+        writer.setCommitData(userData);
+        writer.commit();
+    }
+
+    // user data of the last commit of the writer
+    public static Map<String, String> getCommitData() {
+        return writer.getCommitData();
+    }
+
+    // add document to index
+    public static void addDocument(String title, String infoboxName, String alternateName, String tag, int frequency) throws IOException {
+        long start = System.nanoTime();
+        writer.addDocument(createDocument(title, infoboxName, alternateName, tag, frequency));
+        IngestMetrics.get().addIndexed(System.nanoTime() - start, 1);
+    }
+
+    // add several documents to index at once
+    public static void addDocuments(List<Document> documents) throws IOException {
+        long start = System.nanoTime();
+        writer.addDocuments(documents);
+        IngestMetrics.get().addIndexed(System.nanoTime() - start, documents.size());
+    }
+
+    // add all alternate names of records to the index of writer
+    public static void addRecords(IndexWriter indexWriter, List<AliasRecord> records) throws IOException {
+        long start = System.nanoTime();
+        List<Document> documents = new ArrayList<>();
+        createDocuments(records, documents);
+        indexWriter.addDocuments(documents);
+        IngestMetrics.get().addIndexed(System.nanoTime() - start, documents.size());
+    }
+
+    // add records of one shard of a multistream dump, documents are marked with the shard so that they can be deleted on resume
+    public static void addRecords(List<AliasRecord> records, long shard) throws IOException {
+        long start = System.nanoTime();
+        List<Document> documents = new ArrayList<>();
+        createDocuments(records, documents);
+        for (Document document : documents) {
+            document.add(new LongField("shard", shard, Field.Store.NO));
+        }
+        writer.addDocuments(documents);
+        IngestMetrics.get().addIndexed(System.nanoTime() - start, documents.size());
+    }
+
+    // delete documents of the given shards and of all shards starting at or after from
+    public static void deleteShards(List<Long> shards, long from) throws IOException {
+        List<Query> queries = new ArrayList<>();
+        for (long shard : shards) {
+            queries.add(NumericRangeQuery.newLongRange("shard", shard, shard, true, true));
+        }
+        queries.add(NumericRangeQuery.newLongRange("shard", from, null, true, true));
+        writer.deleteDocuments(queries.toArray(new Query[0]));
+    }
+
+    // create documents for the records of one page, with the compact schema all of them go into one document
+    public static void createDocuments(List<AliasRecord> records, List<Document> documents) {
+        if (compactSchema) {
+            Document document = createArticleDocument(records);
+            if (document != null)
+                documents.add(document);
+            return;
+        }
+        for (AliasRecord record : records) {
+            createDocuments(record, documents);
+        }
+    }
+
+    // create documents for all alternate names of a record
+    public static void createDocuments(AliasRecord record, List<Document> documents) {
+        for (String alternateName : record.alternateNames) {
+            documents.add(createDocument(record.title, record.infoboxName, alternateName, record.tag, record.alternateNames.size()));
+        }
+    }
+
+    public static Document createDocument(String title, String infoboxName, String alternateName, String tag, int frequency) {
+        Document doc = new Document();
+        doc.add(new TextField("title", title, Field.Store.YES));
+        doc.add(new TextField("titleLowerCase", title.toLowerCase(), Field.Store.YES));
+        doc.add(new TextField("infoboxName", infoboxName, Field.Store.YES));
+        doc.add(new TextField("alternateName", alternateName, Field.Store.YES));
+        doc.add(new TextField("fullText", title.toLowerCase() + " " + alternateName.toLowerCase(), Field.Store.YES));
+        doc.add(new StringField("tag", tag.toLowerCase(), Field.Store.YES));
+        doc.add(new IntField("frequency", frequency, Field.Store.YES));
+        addDocValues(doc, title, Collections.singleton(tag.toLowerCase()), frequency);
+        return doc;
+    }
+
+    // one document per article, values of alternateNameTag and alternateNameInfobox belong to the alternateName at the same position,
+    // derived fields are indexed but not stored, null if the records contain no alternate names
+    public static Document createArticleDocument(List<AliasRecord> records) {
+        Document doc = new Document();
+        Set<String> tags = new LinkedHashSet<>();
+        Set<String> infoboxNames = new LinkedHashSet<>();
+        StringBuilder tagFrequencies = new StringBuilder();
+        String title = null;
+        int frequency = 0;
+        for (AliasRecord record : records) {
+            if ("all_tags".equals(record.tag)) // contains the alternate names of the other records again
+                continue;
+            title = record.title;
+            if (!record.alternateNames.isEmpty())
+                tagFrequencies.append(record.tag.toLowerCase()).append('\t').append(record.alternateNames.size()).append('\n');
+            for (String alternateName : record.alternateNames) {
+                doc.add(new TextField("alternateName", alternateName, Field.Store.YES));
+                doc.add(new StoredField("alternateNameTag", record.tag.toLowerCase()));
+                doc.add(new StoredField("alternateNameInfobox", record.infoboxName));
+                doc.add(new TextField("fullText", alternateName.toLowerCase(), Field.Store.NO));
+                tags.add(record.tag.toLowerCase());
+                infoboxNames.add(record.infoboxName);
+                frequency++;
+            }
+        }
+        if (frequency == 0)
+            return null;
+        doc.add(new TextField("title", title, Field.Store.YES));
+        doc.add(new TextField("titleLowerCase", title.toLowerCase(), Field.Store.NO));
+        doc.add(new TextField("fullText", title.toLowerCase(), Field.Store.NO));
+        for (String infoboxName : infoboxNames) {
+            doc.add(new TextField("infoboxName", infoboxName, Field.Store.NO));
+        }
+        for (String tag : tags) {
+            doc.add(new StringField("tag", tag, Field.Store.NO));
+        }
+        doc.add(new StringField("tag", "all_tags", Field.Store.NO)); // articles are found by the same tag query as with one document per name
+        doc.add(new IntField("frequency", frequency, Field.Store.YES));
+        tags.add("all_tags");
+        addDocValues(doc, title, tags, frequency);
+        doc.add(new BinaryDocValuesField("tagFrequencies", new BytesRef(tagFrequencies))); // number of alternate names of every parameter
+        return doc;
+    }
+
+    // title, tags and frequency for aggregations without loading stored fields, see IndexStatistics
+    private static void addDocValues(Document doc, String title, Set<String> tags, int frequency) {
+        doc.add(new SortedDocValuesField("title", new BytesRef(title)));
+        for (String tag : tags) {
+            doc.add(new SortedSetDocValuesField("tag", new BytesRef(tag)));
+        }
+        doc.add(new NumericDocValuesField("frequency", frequency));
+    }
+
+    // alternate names stored in a document of either schema
+    public static List<String> alternateNames(Document document) {
+        return Arrays.asList(document.getValues("alternateName"));
+    }
+
+    // first page of articles matching query in field, loading only the given stored fields (null = all fields),
+    // repeated queries are answered by the query cache until the index changes
+    public static SearchPage searchArticles(String field, String query, int pageSize, Set<String> fields) throws ParseException, IOException {
+        String cacheKey = field + '\n' + WHITESPACE_PATTERN.matcher(query.trim()).replaceAll(" ") + '\n' + pageSize + '\n' + fields;
+        SearchPage page = queryCache.get(cacheKey + '\n' + 0, generation());
+        if (page != null)
+            return page;
+        Query q = PARSERS.get().computeIfAbsent(field, f -> new QueryParser(f, analyzer)).parse(query);
+        return search(new FilteredQuery(q, ARTICLES), null, pageSize, fields, cacheKey);
+    }
+
+    // page of pageSize hits after the last hit of previous (null = first page)
+    public static SearchPage search(Query query, SearchPage previous, int pageSize, Set<String> fields) throws IOException {
+        return search(query, previous, pageSize, fields, null);
+    }
+
+    private static SearchPage search(Query query, SearchPage previous, int pageSize, Set<String> fields, String cacheKey) throws IOException {
+        ScoreDoc after = previous == null ? null : previous.last;
+        int start = previous == null ? 0 : previous.start + previous.documents.size();
+        long generation = generation(); // before acquiring, so that a concurrent refresh makes the cached page stale
+        IndexSearcher s = acquireSearcher();
+        if (s == null)
+            return new SearchPage(query, fields, Collections.<Document>emptyList(), start, 0, null, cacheKey);
+        try {
+            // a refresh between two pages may add hits to pages that were already shown
+            TopDocs docs = s.searchAfter(after, query, pageSize);
+            List<Document> documents = new ArrayList<>(docs.scoreDocs.length);
+            for (ScoreDoc hit : docs.scoreDocs) {
+                documents.add(fields == null ? s.doc(hit.doc) : s.doc(hit.doc, fields));
+            }
+            ScoreDoc last = docs.scoreDocs.length == 0 ? null : docs.scoreDocs[docs.scoreDocs.length - 1];
+            SearchPage page = new SearchPage(query, fields, documents, start, docs.totalHits, last, cacheKey);
+            if (cacheKey != null)
+                queryCache.put(cacheKey + '\n' + start, generation, page);
+            return page;
+        } finally {
+            releaseSearcher(s);
+        }
+    }
+
+    // searcher from searchers if they are open, otherwise the searcher of initReader
+    private static IndexSearcher acquireSearcher() throws IOException {
+        return searchers == null ? searcher : searchers.acquire();
+    }
+
+    private static void releaseSearcher(IndexSearcher s) throws IOException {
+        if (searchers != null)
+            searchers.release(s);
+    }
+
+    // searchers of initReader never change
+    private static long generation() {
+        return searchers == null ? 0 : searchers.getGeneration();
+    }
+
+    // page following the given one, with the same query and fields
+    public static SearchPage next(SearchPage page, int pageSize) throws IOException {
+        if (page.cacheKey != null) {
+            SearchPage cached = queryCache.get(page.cacheKey + '\n' + (page.start + page.documents.size()), generation());
+            if (cached != null)
+                return cached;
+        }
+        return search(page.query, page, pageSize, page.fields, page.cacheKey);
+    }
+
+    // parameters in which the article with exactly this title has alternate names, searched in documents of either schema
+    public static Set<String> getTags(String title) throws ParseException, IOException {
+        Query q = PARSERS.get().computeIfAbsent("title", f -> new QueryParser(f, analyzer)).parse('"' + QueryParser.escape(title) + '"');
+        Set<String> tags = new LinkedHashSet<>();
+        IndexSearcher s = acquireSearcher();
+        if (s == null)
+            return tags;
+        try {
+            for (ScoreDoc hit : s.search(q, MAX_TITLE_DOCUMENTS).scoreDocs) {
+                Document document = s.doc(hit.doc, TAG_FIELDS);
+                if (!title.equals(document.get("title")))
+                    continue;
+                for (String tag : document.getValues("tag")) { // one document per alternate name
+                    if (!"all_tags".equals(tag))
+                        tags.add(tag);
+                }
+                tags.addAll(Arrays.asList(document.getValues("alternateNameTag"))); // compact schema
+            }
+        } finally {
+            releaseSearcher(s);
+        }
+        return tags;
+    }
+
+    // count alternate names found in the parameter tag
+    public static void getDocumentsByTag(String tag) throws ParseException, IOException {
+        Query q = PARSERS.get().computeIfAbsent("tag", f -> new QueryParser(f, analyzer)).parse(tag);
+        TotalHitCountCollector collector = new TotalHitCountCollector();
+        IndexSearcher s = acquireSearcher();
+        try {
+            if (s != null)
+                s.search(q, collector);
+        } finally {
+            releaseSearcher(s);
+        }
+        System.out.println("Alternate names found in parameter " + tag + ": " + collector.getTotalHits());
+    }
+
+    // get articles by number of their alternate names
+    public static void getDocumentsByFrequency(int frequency) throws IOException {
+        Query q = new FilteredQuery(NumericRangeQuery.newIntRange("frequency", 1, frequency, frequency, true, true), ARTICLES);
+        Set<String> fields = Collections.singleton("title");
+        Set<String> results = new HashSet<>();
+        for (SearchPage page = search(q, null, PAGE_SIZE, fields); !page.documents.isEmpty(); page = next(page, PAGE_SIZE)) {
+            for (Document document : page.documents) {
+                String title = document.get("title");
+                if (results.add(title))
+                    System.out.println(title);
+            }
+            if (!page.hasMore())
+                break;
+        }
+    }
+
+    static class MessageReader extends Thread {
+        public void run() {
+            try {
+                // close reader on exit
+                reader.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            //System.out.println("\nClosing reader.");
+        }
+    }
+
+    static class MessageWriter extends Thread {
+        public void run() {
+            try {
+                // close writer on exit
+                if (rollbackOnExit)
+                    writer.rollback(); // the index stays at the last checkpoint, so a resumed run does not duplicate pages
+                else
+                    writer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            //System.out.println("\nClosing writer.");
+        }
+    }
+}
\ No newline at end of file
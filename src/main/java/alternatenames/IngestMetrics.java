@@ -0,0 +1,298 @@
+package alternatenames;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// ingest statistics that can be updated by many workers at once: striped counters and primitive histograms
+public class IngestMetrics implements IngestMetricsMBean {
+
+    public static final int ALTERNATE_NAMES_HIST_SIZE = 1001;
+
+    private static final IngestMetrics INSTANCE = new IngestMetrics();
+
+    private final long startTime = System.nanoTime();
+    private volatile long totalInputBytes = 0; // size of all input files, used to estimate remaining time
+
+    public final LongAdder pages = new LongAdder();
+    public final LongAdder documents = new LongAdder(); // documents added to the index
+    public final LongAdder quarantinedPages = new LongAdder(); // pages cut short or with skipped parameters, see ExtractionBudget
+    public final LongAdder infoboxes = new LongAdder();
+    public final LongAdder titlesWithAlternateNames = new LongAdder();
+    public final LongAdder alternateNames = new LongAdder();
+    public final LongAdder inputBytes = new LongAdder(); // compressed bytes read from the dump
+
+    // time spent in each stage of the ingest
+    public final Stage decompress = new Stage("decompress");
+    public final Stage framing = new Stage("framing");
+    public final Stage extraction = new Stage("extraction");
+    public final Stage render = new Stage("render");
+    public final Stage index = new Stage("index");
+
+    private final StripedHistogram extractionLatency = new StripedHistogram(LatencyBuckets.COUNT); // nanoseconds per page
+    private final Map<String, StripedHistogram> alternateNamesHist = new ConcurrentHashMap<>(); // tag -> number of alternate names
+
+    public static IngestMetrics get() {
+        return INSTANCE;
+    }
+
+    // register the metrics with the platform MBean server
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName("alternatenames:type=IngestMetrics"));
+        } catch (JMException e) {
+            System.err.println("Could not register ingest metrics: " + e);
+        }
+    }
+
+    // print a progress line with estimated remaining time every intervalSeconds
+    public static void startProgressReporter(long totalInputBytes, int intervalSeconds) {
+        INSTANCE.totalInputBytes = totalInputBytes;
+        Thread reporter = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(intervalSeconds * 1000L);
+                    System.err.println(INSTANCE.getProgress());
+                }
+            } catch (InterruptedException e) {
+                // stop reporting
+            }
+        }, "ingest-progress");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+
+    // count compressed bytes read through the stream
+    public static InputStream meter(InputStream in) {
+        return new FilterInputStream(in) {
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0)
+                    INSTANCE.inputBytes.increment();
+                return b;
+            }
+
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0)
+                    INSTANCE.inputBytes.add(read);
+                return read;
+            }
+        };
+    }
+
+    public void addExtraction(long nanos) {
+        extraction.add(nanos);
+        extractionLatency.increment(LatencyBuckets.bucket(nanos));
+    }
+
+    public void addIndexed(long nanos, int documentCount) {
+        index.add(nanos);
+        documents.add(documentCount);
+    }
+
+    public void addToHistogram(int frequency, String tag) {
+        alternateNamesHist.computeIfAbsent(tag, t -> new StripedHistogram(ALTERNATE_NAMES_HIST_SIZE))
+                .increment(Math.min(frequency, ALTERNATE_NAMES_HIST_SIZE - 1));
+    }
+
+    // number of parameters (of tag) with the given number of alternate names
+    public long[] getHistogram(String tag) {
+        StripedHistogram histogram = alternateNamesHist.get(tag);
+        return histogram == null ? new long[ALTERNATE_NAMES_HIST_SIZE] : histogram.snapshot();
+    }
+
+    public String getProgress() {
+        StringBuilder progress = new StringBuilder();
+        progress.append(String.format("pages: %d (%.0f/s), documents: %d (%.0f/s), input: %.1f MB (%.1f MB/s)",
+                getPages(), getPagesPerSecond(), getDocuments(), getDocumentsPerSecond(), inputBytes.sum() / 1e6, getInputMegabytesPerSecond()));
+        if (totalInputBytes > 0) {
+            long eta = getEtaSeconds();
+            progress.append(String.format(", %.1f%%, ETA %d:%02d:%02d",
+                    100.0 * inputBytes.sum() / totalInputBytes, eta / 3600, eta / 60 % 60, eta % 60));
+        }
+        progress.append(String.format(", extraction p50/p99/p99.9: %.0f/%.0f/%.0f us",
+                getExtractionLatencyP50Micros(), getExtractionLatencyP99Micros(), getExtractionLatencyP999Micros()));
+        progress.append(", busy s:");
+        for (Stage stage : new Stage[]{decompress, framing, extraction, render, index}) {
+            progress.append(String.format(" %s %.0f", stage.name, stage.getSeconds()));
+        }
+        return progress.toString();
+    }
+
+    public long getPages() {
+        return pages.sum();
+    }
+
+    public long getInfoboxes() {
+        return infoboxes.sum();
+    }
+
+    public long getTitlesWithAlternateNames() {
+        return titlesWithAlternateNames.sum();
+    }
+
+    public long getAlternateNames() {
+        return alternateNames.sum();
+    }
+
+    public long getQuarantinedPages() {
+        return quarantinedPages.sum();
+    }
+
+    public long getDocuments() {
+        return documents.sum();
+    }
+
+    public double getDocumentsPerSecond() {
+        return documents.sum() / getElapsedSeconds();
+    }
+
+    public double getPagesPerSecond() {
+        return pages.sum() / getElapsedSeconds();
+    }
+
+    public double getInputMegabytesPerSecond() {
+        return inputBytes.sum() / 1e6 / getElapsedSeconds();
+    }
+
+    // -1 if the total size of input is unknown or nothing was read yet
+    public long getEtaSeconds() {
+        long read = inputBytes.sum();
+        if (totalInputBytes <= 0 || read == 0)
+            return -1;
+        return (long) (Math.max(0, totalInputBytes - read) / (read / getElapsedSeconds()));
+    }
+
+    public double getDecompressSeconds() {
+        return decompress.getSeconds();
+    }
+
+    public double getFramingSeconds() {
+        return framing.getSeconds();
+    }
+
+    public double getExtractionSeconds() {
+        return extraction.getSeconds();
+    }
+
+    public double getRenderSeconds() {
+        return render.getSeconds();
+    }
+
+    public double getIndexSeconds() {
+        return index.getSeconds();
+    }
+
+    public double getExtractionLatencyP50Micros() {
+        return LatencyBuckets.percentile(extractionLatency.snapshot(), 0.5) / 1e3;
+    }
+
+    public double getExtractionLatencyP99Micros() {
+        return LatencyBuckets.percentile(extractionLatency.snapshot(), 0.99) / 1e3;
+    }
+
+    public double getExtractionLatencyP999Micros() {
+        return LatencyBuckets.percentile(extractionLatency.snapshot(), 0.999) / 1e3;
+    }
+
+    private double getElapsedSeconds() {
+        return Math.max(1e-9, (System.nanoTime() - startTime) / 1e9);
+    }
+
+    // number of calls and time spent in one stage
+    public static class Stage {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        public void add(long elapsedNanos) {
+            count.increment();
+            nanos.add(elapsedNanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getSeconds() {
+            return nanos.sum() / 1e9;
+        }
+    }
+
+    // histogram of long counters, split into stripes so that concurrent threads rarely update the same cache line
+    static class StripedHistogram {
+        private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+        private final int size;
+        private final AtomicLongArray counts;
+
+        StripedHistogram(int size) {
+            this.size = size;
+            this.counts = new AtomicLongArray(size * STRIPES);
+        }
+
+        void increment(int bucket) {
+            int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+            counts.incrementAndGet(stripe * size + bucket);
+        }
+
+        long[] snapshot() {
+            long[] sum = new long[size];
+            for (int i = 0; i < counts.length(); i++) {
+                sum[i % size] += counts.get(i);
+            }
+            return sum;
+        }
+    }
+
+    // logarithmic buckets with 8 linear sub-buckets per power of two (relative error below 12.5 %)
+    static class LatencyBuckets {
+        static final int SUB_BUCKETS = 8;
+        static final int COUNT = 64 * SUB_BUCKETS;
+
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS)
+                return (int) Math.max(0, value);
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+            return (exponent - 2) * SUB_BUCKETS + subBucket;
+        }
+
+        // smallest value that falls into bucket
+        static long lowerBound(int bucket) {
+            if (bucket < SUB_BUCKETS)
+                return bucket;
+            int exponent = bucket / SUB_BUCKETS + 2;
+            return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 3);
+        }
+
+        static double percentile(long[] counts, double percentile) {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0)
+                return 0;
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank)
+                    return lowerBound(i);
+            }
+            return lowerBound(counts.length - 1);
+        }
+    }
+}
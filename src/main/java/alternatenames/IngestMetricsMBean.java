@@ -0,0 +1,41 @@
+package alternatenames;
+
+// live ingest statistics exposed through JMX
+public interface IngestMetricsMBean {
+
+    long getPages();
+
+    long getInfoboxes();
+
+    long getTitlesWithAlternateNames();
+
+    long getAlternateNames();
+
+    double getPagesPerSecond();
+
+    long getQuarantinedPages();
+
+    long getDocuments();
+
+    double getDocumentsPerSecond();
+
+    double getInputMegabytesPerSecond();
+
+    long getEtaSeconds();
+
+    double getDecompressSeconds();
+
+    double getFramingSeconds();
+
+    double getExtractionSeconds();
+
+    double getRenderSeconds();
+
+    double getIndexSeconds();
+
+    double getExtractionLatencyP50Micros();
+
+    double getExtractionLatencyP99Micros();
+
+    double getExtractionLatencyP999Micros();
+}
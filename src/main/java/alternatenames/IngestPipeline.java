@@ -0,0 +1,232 @@
+package alternatenames;
+
+import org.apache.lucene.document.Document;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// reader -> extraction workers -> batched index writer, stages are joined by bounded queues
+public class IngestPipeline {
+
+    private static final WikiPage END_OF_PAGES = new WikiPage(null, null);
+    private static final List<AliasRecord> END_OF_RECORDS = new ArrayList<>();
+
+    private final int workers;
+    private final int batchSize;
+    private final BlockingQueue<WikiPage> pages;
+    private final BlockingQueue<List<AliasRecord>> records;
+    private final Stage readStage = new Stage("read");
+    private final Stage extractStage = new Stage("extract");
+    private final Stage indexStage = new Stage("index");
+    private long startTime;
+    private volatile Throwable failure; // of the first stage that failed, stops the other stages
+    private volatile boolean stopped; // run returned, the queues are not taken from anymore
+
+    public IngestPipeline(int workers, int queueCapacity, int batchSize) {
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pages = new ArrayBlockingQueue<>(queueCapacity);
+        this.records = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    // parse all pages of the input, the calling thread writes to the index
+    public void run(PageScanner in, int reportIntervalSeconds) throws IOException {
+        startTime = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(workers + 1);
+        ScheduledReporter reporter = reportIntervalSeconds > 0 ? new ScheduledReporter(reportIntervalSeconds) : null;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                read(in);
+                return null;
+            }));
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    extract();
+                    return null;
+                }));
+            }
+            if (reporter != null)
+                reporter.start();
+            write(futures);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ingest was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Ingest failed", e.getCause());
+        } finally {
+            stopped = true;
+            executor.shutdownNow();
+            if (reporter != null)
+                reporter.interrupt();
+        }
+    }
+
+    private void read(PageScanner in) throws IOException, InterruptedException {
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                WikiPage page = in.next();
+                readStage.add(1, System.nanoTime() - start);
+                if (page == null)
+                    break;
+                if (!offer(pages, page))
+                    return;
+            }
+        } catch (Throwable e) {
+            fail(e);
+            throw e;
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                if (!offer(pages, END_OF_PAGES))
+                    break;
+            }
+        }
+    }
+
+    private void extract() throws InterruptedException {
+        try {
+            WikiPage page;
+            while ((page = pages.take()) != END_OF_PAGES) {
+                long start = System.nanoTime();
+                List<AliasRecord> pageRecords = Parser.extractPage(page);
+                extractStage.add(1, System.nanoTime() - start);
+                if (!pageRecords.isEmpty() && !offer(records, pageRecords))
+                    return;
+            }
+        } catch (RuntimeException | Error e) {
+            fail(e);
+            throw e;
+        } finally {
+            offer(records, END_OF_RECORDS);
+        }
+    }
+
+    // false if a stage failed or the pipeline stopped, the item would not be taken anymore
+    private <T> boolean offer(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, 1, TimeUnit.SECONDS)) {
+            if (failure != null || stopped)
+                return false;
+        }
+        return true;
+    }
+
+    private void fail(Throwable e) {
+        if (failure == null)
+            failure = e;
+    }
+
+    // batch documents of all workers into IndexWriter.addDocuments until every worker has finished
+    // the reader and the workers stop when writing fails
+    private void write(List<Future<?>> futures) throws IOException, InterruptedException, ExecutionException {
+        List<Document> batch = new ArrayList<>(batchSize);
+        int finishedWorkers = 0;
+        try {
+            while (finishedWorkers < workers) {
+                if (failure != null)
+                    throw new IOException("Ingest failed", failure);
+                List<AliasRecord> pageRecords = records.poll(1, TimeUnit.SECONDS);
+                if (pageRecords == null) {
+                    checkFailures(futures);
+                    continue;
+                }
+                if (pageRecords == END_OF_RECORDS) {
+                    finishedWorkers++;
+                    continue;
+                }
+                Indexer.createDocuments(pageRecords, batch);
+                if (batch.size() >= batchSize)
+                    flush(batch);
+            }
+            if (failure != null)
+                throw new IOException("Ingest failed", failure);
+            flush(batch);
+        } catch (Throwable e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    private void flush(List<Document> batch) throws IOException {
+        if (batch.isEmpty())
+            return;
+        long start = System.nanoTime();
+        Indexer.addDocuments(batch);
+        indexStage.add(batch.size(), System.nanoTime() - start);
+        batch.clear();
+    }
+
+    // stop waiting for records if the reader or a worker failed
+    private static void checkFailures(List<Future<?>> futures) throws InterruptedException, ExecutionException {
+        for (Future<?> future : futures) {
+            if (future.isDone())
+                future.get();
+        }
+    }
+
+    public int getPageQueueDepth() {
+        return pages.size();
+    }
+
+    public int getRecordQueueDepth() {
+        return records.size();
+    }
+
+    public String getStatus() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startTime) / 1e9);
+        return readStage.getStatus(seconds) + ", " + extractStage.getStatus(seconds) + ", " + indexStage.getStatus(seconds)
+                + ", queued pages: " + getPageQueueDepth() + ", queued records: " + getRecordQueueDepth();
+    }
+
+    // number of processed items and time spent in one stage of the pipeline
+    private static class Stage {
+        private final String name;
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        void add(long count, long nanos) {
+            items.addAndGet(count);
+            busyNanos.addAndGet(nanos);
+        }
+
+        String getStatus(double seconds) {
+            return String.format("%s: %d (%.0f/s, busy %.0f s)", name, items.get(), items.get() / seconds, busyNanos.get() / 1e9);
+        }
+    }
+
+    private class ScheduledReporter extends Thread {
+        private final int intervalSeconds;
+
+        ScheduledReporter(int intervalSeconds) {
+            this.intervalSeconds = intervalSeconds;
+            setDaemon(true);
+        }
+
+        public void run() {
+            try {
+                while (!isInterrupted()) {
+                    Thread.sleep(intervalSeconds * 1000L);
+                    System.err.println(getStatus());
+                }
+            } catch (InterruptedException e) {
+                // pipeline finished
+            }
+        }
+    }
+}
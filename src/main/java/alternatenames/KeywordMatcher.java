@@ -0,0 +1,100 @@
+package alternatenames;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+// Aho-Corasick automaton that finds any of several ASCII keywords (case insensitive) in one pass over a line
+public class KeywordMatcher {
+
+    private static final int ALPHABET = 128;
+
+    private final String[] keywords;
+    private final int[][] transitions; // complete transition table, failure links are already followed
+    private final int[] keywordAt; // index of keyword that ends in state (directly or through failure links), -1 if none
+
+    public KeywordMatcher(List<String> keywords) {
+        this.keywords = keywords.toArray(new String[0]);
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        trie.add(newState());
+        ends.add(-1);
+        for (int k = 0; k < this.keywords.length; k++) {
+            int state = 0;
+            for (char c : this.keywords[k].toLowerCase().toCharArray()) {
+                if (c >= ALPHABET)
+                    throw new IllegalArgumentException("Keyword must be ASCII: " + this.keywords[k]);
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    ends.add(-1);
+                }
+                state = trie.get(state)[c];
+            }
+            if (ends.get(state) < 0)
+                ends.set(state, k);
+        }
+        transitions = trie.toArray(new int[0][]);
+        keywordAt = new int[transitions.length];
+        for (int i = 0; i < keywordAt.length; i++) {
+            keywordAt[i] = ends.get(i);
+        }
+        // breadth first: fill missing transitions from the failure state, which is always closer to the root
+        int[] fail = new int[transitions.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = transitions[0][c];
+            if (next < 0) {
+                transitions[0][c] = 0;
+            }
+            else {
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (keywordAt[state] < 0)
+                keywordAt[state] = keywordAt[fail[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[fail[state]][c];
+                }
+                else {
+                    fail[next] = transitions[fail[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    // index of the first keyword found in s, or -1 if s contains none of the keywords
+    public int find(CharSequence s) {
+        int state = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 'A' && c <= 'Z')
+                c += 'a' - 'A';
+            state = c < ALPHABET ? transitions[state][c] : 0;
+            if (keywordAt[state] >= 0)
+                return keywordAt[state];
+        }
+        return -1;
+    }
+
+    public boolean containsAny(CharSequence s) {
+        return find(s) >= 0;
+    }
+
+    public String getKeyword(int index) {
+        return keywords[index];
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        java.util.Arrays.fill(state, -1);
+        return state;
+    }
+}
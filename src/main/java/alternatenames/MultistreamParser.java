@@ -0,0 +1,196 @@
+package alternatenames;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.utils.BoundedInputStream;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// parse pages-articles-multistream.xml.bz2 in parallel, using stream offsets from the -index.txt.bz2 file
+public class MultistreamParser {
+
+    private static final int STREAMS_PER_SHARD = 16; // every stream contains 100 pages
+
+    private static final int CHECKPOINT_SHARDS = 64; // commit a checkpoint after every that many finished shards
+
+    // keys of the commit user data written at checkpoints
+    private static final String CHECKPOINT_FILE = "multistream.file";
+    private static final String CHECKPOINT_WATERMARK = "multistream.watermark"; // all shards starting before are in the index
+    private static final String CHECKPOINT_COMPLETED = "multistream.completed"; // finished shards after the watermark
+
+    public static void parse(String fileName, String indexFileName, int threads) throws IOException {
+        parse(fileName, indexFileName, threads, false);
+    }
+
+    // resume skips shards that were finished at the last checkpoint and deletes documents of unfinished ones
+    public static void parse(String fileName, String indexFileName, int threads, boolean resume) throws IOException {
+        List<long[]> shards = getShards(fileName, indexFileName);
+        Indexer.initWriter();
+        Indexer.rollbackOnExit = true;
+        Progress progress = new Progress(fileName, shards);
+        if (resume)
+            progress.resume(Indexer.getCommitData());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long[] shard : shards) {
+                if (progress.isCompleted(shard[0]))
+                    continue;
+                futures.add(executor.submit(() -> {
+                    parseShard(fileName, shard[0], shard[1]);
+                    progress.complete(shard[0]);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Parsing of " + fileName + " was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Parsing of " + fileName + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        progress.checkpoint();
+        Parser.printStatistics(); // ** STATISTICS **
+    }
+
+    // split the dump into byte ranges {start, end} of STREAMS_PER_SHARD consecutive bz2 streams
+    public static List<long[]> getShards(String fileName, String indexFileName) throws IOException {
+        List<Long> offsets = readStreamOffsets(indexFileName);
+        long fileLength = new File(fileName).length();
+        offsets.add(fileLength);
+        List<long[]> shards = new ArrayList<>();
+        for (int i = 0; i < offsets.size() - 1; i += STREAMS_PER_SHARD) {
+            int end = Math.min(i + STREAMS_PER_SHARD, offsets.size() - 1);
+            shards.add(new long[]{offsets.get(i), offsets.get(end)});
+        }
+        return shards;
+    }
+
+    // every line of the index has format offset:pageId:title, pages of one stream share the same offset
+    private static List<Long> readStreamOffsets(String indexFileName) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new BZip2CompressorInputStream(new BufferedInputStream(new FileInputStream(indexFileName)), true), StandardCharsets.UTF_8))) {
+            String line;
+            long last = -1;
+            while ((line = in.readLine()) != null) {
+                int colon = line.indexOf(':');
+                if (colon <= 0)
+                    continue;
+                long offset = Long.parseLong(line.substring(0, colon));
+                if (offset != last) {
+                    offsets.add(offset);
+                    last = offset;
+                }
+            }
+        }
+        return offsets;
+    }
+
+    // decompressed bytes of the streams between start and end, closing the stream does not close the channel
+    public static InputStream getInputStreamForRange(FileChannel channel, long start, long end) throws IOException {
+        channel.position(start);
+        InputStream range = IngestMetrics.meter(new BoundedInputStream(Channels.newInputStream(channel), end - start));
+        return new BZip2CompressorInputStream(new BufferedInputStream(range, 1 << 16), true);
+    }
+
+    private static void parseShard(String fileName, long start, long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+             PageScanner in = new PageScanner(getInputStreamForRange(channel, start, end), 1 << 20)) {
+            WikiPage page;
+            while ((page = in.next()) != null) {
+                List<AliasRecord> records = Parser.extractPage(page);
+                if (!records.isEmpty())
+                    Indexer.addRecords(records, start);
+            }
+        }
+    }
+
+    // finished shards, shards are started in order so that only few of them finish out of order
+    private static class Progress {
+        private final String fileName;
+        private final List<Long> starts = new ArrayList<>();
+        private final TreeSet<Long> completed = new TreeSet<>(); // finished shards at or after the watermark
+        private int watermark = 0; // index of the first unfinished shard
+        private int sinceCheckpoint = 0;
+
+        Progress(String fileName, List<long[]> shards) {
+            this.fileName = fileName;
+            for (long[] shard : shards) {
+                starts.add(shard[0]);
+            }
+        }
+
+        synchronized void resume(Map<String, String> checkpoint) throws IOException {
+            if (!fileName.equals(checkpoint.get(CHECKPOINT_FILE)))
+                return;
+            long watermarkOffset = Long.parseLong(checkpoint.get(CHECKPOINT_WATERMARK));
+            while (watermark < starts.size() && starts.get(watermark) < watermarkOffset)
+                watermark++;
+            String finished = checkpoint.get(CHECKPOINT_COMPLETED);
+            if (finished != null && !finished.isEmpty()) {
+                for (String offset : finished.split(",")) {
+                    completed.add(Long.parseLong(offset));
+                }
+            }
+            // documents of shards that were being parsed at the checkpoint may be partially in the index
+            List<Long> unfinished = new ArrayList<>();
+            long after = watermarkOffset;
+            if (!completed.isEmpty()) {
+                for (int i = watermark; i < starts.size() && starts.get(i) < completed.last(); i++) {
+                    if (!completed.contains(starts.get(i)))
+                        unfinished.add(starts.get(i));
+                }
+                after = completed.last() + 1;
+            }
+            Indexer.deleteShards(unfinished, after);
+            System.out.println("Resuming " + fileName + ", " + (watermark + completed.size()) + " of " + starts.size() + " shards are finished");
+        }
+
+        synchronized boolean isCompleted(long start) {
+            int i = Collections.binarySearch(starts, start);
+            return i < watermark || completed.contains(start);
+        }
+
+        synchronized void complete(long start) throws IOException {
+            completed.add(start);
+            while (watermark < starts.size() && completed.remove(starts.get(watermark)))
+                watermark++;
+            if (++sinceCheckpoint >= CHECKPOINT_SHARDS)
+                checkpoint();
+        }
+
+        // all documents of finished shards were added before they were marked as finished, so they are part of this commit
+        synchronized void checkpoint() throws IOException {
+            Map<String, String> checkpoint = new HashMap<>();
+            checkpoint.put(CHECKPOINT_FILE, fileName);
+            checkpoint.put(CHECKPOINT_WATERMARK, String.valueOf(watermark < starts.size() ? starts.get(watermark) : Long.MAX_VALUE));
+            StringBuilder finished = new StringBuilder();
+            for (long offset : completed) {
+                if (finished.length() > 0)
+                    finished.append(',');
+                finished.append(offset);
+            }
+            checkpoint.put(CHECKPOINT_COMPLETED, finished.toString());
+            Indexer.commit(checkpoint);
+            sinceCheckpoint = 0;
+        }
+    }
+}
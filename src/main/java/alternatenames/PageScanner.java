@@ -0,0 +1,253 @@
+package alternatenames;
+
+import org.apache.commons.compress.compressors.CompressorException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.apache.commons.lang3.StringEscapeUtils.unescapeHtml4;
+
+// split raw UTF-8 bytes of a dump into pages, only title and infobox region are decoded to String
+public class PageScanner implements Closeable {
+
+    private static final byte[] PAGE_START = bytes("<page>");
+    private static final byte[] PAGE_END = bytes("</page>");
+    private static final byte[] TITLE_START = bytes("<title>");
+    private static final byte[] TITLE_END = bytes("</title>");
+    private static final byte[] TEXT_START = bytes("<text");
+    private static final byte[] TEXT_END = bytes("</text>");
+    private static final byte[] INFOBOX = bytes("infobox");
+    private static final int MAX_WINDOW = Integer.MAX_VALUE - 8;
+
+    private final InputStream in; // null for memory-mapped file
+    private final FileChannel channel; // null for input stream
+    private ByteBuffer buffer;
+    private long bufferOffset; // position of buffer in memory-mapped file
+    private int windowSize;
+    private boolean endOfInput;
+    private int position;
+    private int mark; // start of the current page, bytes before mark may be discarded when filling the buffer
+    private long discarded; // number of bytes discarded from the beginning of the buffer
+    private byte[] scratch = new byte[1 << 12]; // reusable buffer for decoding memory-mapped bytes
+    private long readNanos; // time spent reading (and decompressing) input
+
+    // scan pages of a decompressed stream with a reusable buffer of initial size bufferSize
+    public PageScanner(InputStream in, int bufferSize) {
+        this.in = in;
+        this.channel = null;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.limit(0);
+    }
+
+    // scan pages of an already decompressed dump through windows of a memory-mapped file
+    public PageScanner(Path file, int windowSize) throws IOException {
+        this.in = null;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.windowSize = windowSize;
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+    // memory-map decompressed dumps, decompress compressed ones on the fly
+    public static PageScanner open(String fileName) throws IOException {
+        if (fileName.endsWith(".xml"))
+            return new PageScanner(Paths.get(fileName), 1 << 30);
+        try {
+            return new PageScanner(Parser.getInputStreamForCompressedFile(fileName), 1 << 20);
+        } catch (CompressorException e) {
+            throw new IOException("Unsupported compression of " + fileName, e);
+        }
+    }
+
+    // return the next page, or null at the end of input
+    public WikiPage next() throws IOException {
+        long start = System.nanoTime();
+        long startReadNanos = readNanos;
+        long startScanned = getBytesScanned();
+        WikiPage page = nextPage();
+        IngestMetrics metrics = IngestMetrics.get();
+        metrics.framing.add(System.nanoTime() - start - (readNanos - startReadNanos));
+        if (channel != null) // compressed input is counted by the metered stream
+            metrics.inputBytes.add(getBytesScanned() - startScanned);
+        return page;
+    }
+
+    private WikiPage nextPage() throws IOException {
+        int pageStart = find(PAGE_START, position, position);
+        if (pageStart < 0)
+            return null;
+        int pageEnd = find(PAGE_END, pageStart, pageStart); // whole page is in the buffer from now on
+        if (pageEnd < 0)
+            return null;
+        pageStart = mark; // page start may have moved to the beginning of the buffer while filling it
+        String title = null;
+        String text = null;
+        int titleStart = indexOf(TITLE_START, pageStart, pageEnd);
+        int titleEnd = titleStart < 0 ? -1 : indexOf(TITLE_END, titleStart, pageEnd);
+        if (titleEnd >= 0)
+            title = unescapeHtml4(decode(titleStart + TITLE_START.length, titleEnd));
+        int textTag = indexOf(TEXT_START, Math.max(pageStart, titleEnd), pageEnd);
+        if (textTag >= 0) {
+            int textStart = indexOf((byte) '>', textTag, pageEnd);
+            if (textStart >= 0 && buffer.get(textStart - 1) != '/') { // <text ... /> has no content
+                textStart++;
+                int textEnd = indexOf(TEXT_END, textStart, pageEnd);
+                if (textEnd < 0)
+                    textEnd = pageEnd;
+                int infobox = findInfobox(textStart, textEnd);
+                if (infobox >= 0)
+                    text = decode(lineStart(infobox, textStart), textEnd);
+            }
+        }
+        position = pageEnd + PAGE_END.length;
+        return new WikiPage(title, text);
+    }
+
+    // number of decompressed bytes consumed so far
+    public long getBytesScanned() {
+        return discarded + position;
+    }
+
+    public void close() throws IOException {
+        if (in != null)
+            in.close();
+        if (channel != null)
+            channel.close();
+    }
+
+    // find pattern starting at from, load more input if needed, return -1 at the end of input
+    private int find(byte[] pattern, int from, int keepFrom) throws IOException {
+        mark = keepFrom;
+        while (true) {
+            int found = indexOf(pattern, from, buffer.limit());
+            if (found >= 0)
+                return found;
+            int searched = Math.max(from, buffer.limit() - pattern.length + 1);
+            int shift = fill();
+            if (shift < 0)
+                return -1;
+            from = searched - shift;
+        }
+    }
+
+    // discard bytes before mark and load more input, return number of discarded bytes or -1 at the end of input
+    private int fill() throws IOException {
+        if (endOfInput)
+            return -1;
+        int shift = mark;
+        if (in != null) {
+            byte[] array = buffer.array();
+            int remaining = buffer.limit() - shift;
+            if (shift == 0 && buffer.limit() == array.length) { // page does not fit into the buffer
+                byte[] larger = new byte[array.length * 2];
+                System.arraycopy(array, 0, larger, 0, remaining);
+                array = larger;
+            }
+            else {
+                System.arraycopy(array, shift, array, 0, remaining);
+            }
+            long start = System.nanoTime();
+            int read = in.read(array, remaining, array.length - remaining);
+            long elapsed = System.nanoTime() - start;
+            readNanos += elapsed;
+            IngestMetrics.get().decompress.add(elapsed);
+            buffer = ByteBuffer.wrap(array);
+            buffer.limit(remaining + Math.max(read, 0));
+            if (read < 0)
+                endOfInput = true;
+        }
+        else {
+            long size = channel.size();
+            if (bufferOffset + buffer.limit() >= size) {
+                endOfInput = true;
+                return -1;
+            }
+            long offset = bufferOffset + shift;
+            if (shift == 0 && buffer.limit() >= windowSize) // page does not fit into the window
+                windowSize = (int) Math.min((long) windowSize * 2, MAX_WINDOW);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, size - offset));
+            bufferOffset = offset;
+        }
+        position -= shift;
+        discarded += shift;
+        mark = 0;
+        return endOfInput ? -1 : shift;
+    }
+
+    private int indexOf(byte[] pattern, int from, int to) {
+        int last = to - pattern.length;
+        byte first = pattern[0];
+        for (int i = from; i <= last; i++) {
+            if (buffer.get(i) != first)
+                continue;
+            int j = 1;
+            while (j < pattern.length && buffer.get(i + j) == pattern[j])
+                j++;
+            if (j == pattern.length)
+                return i;
+        }
+        return -1;
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b)
+                return i;
+        }
+        return -1;
+    }
+
+    // find {{ Infobox (whitespace allowed between braces, name is case insensitive)
+    private int findInfobox(int from, int to) {
+        for (int i = indexOf((byte) '{', from, to); i >= 0; i = indexOf((byte) '{', i + 1, to)) {
+            int j = skipWhitespace(i + 1, to);
+            if (j >= to || buffer.get(j) != '{')
+                continue;
+            j = skipWhitespace(j + 1, to);
+            if (j + INFOBOX.length > to)
+                return -1;
+            int k = 0;
+            while (k < INFOBOX.length && (buffer.get(j + k) | 0x20) == INFOBOX[k])
+                k++;
+            if (k == INFOBOX.length)
+                return i;
+        }
+        return -1;
+    }
+
+    private int skipWhitespace(int i, int to) {
+        while (i < to) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r')
+                break;
+            i++;
+        }
+        return i;
+    }
+
+    private int lineStart(int i, int from) {
+        while (i > from && buffer.get(i - 1) != '\n')
+            i--;
+        return i;
+    }
+
+    private String decode(int from, int to) {
+        if (buffer.hasArray())
+            return new String(buffer.array(), buffer.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        if (scratch.length < to - from)
+            scratch = new byte[Math.max(to - from, scratch.length * 2)];
+        for (int i = from; i < to; i++) {
+            scratch[i - from] = buffer.get(i);
+        }
+        return new String(scratch, 0, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,303 @@
+package alternatenames;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.BytesRef;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// titles and infobox wikitext of the pages of a dump that have an infobox, so that alternate names can be extracted again
+// without decompressing and scanning the whole dump
+// format: MAGIC, blocks of pages compressed with LZ4 (CompressionMode.FAST), each block is
+// vint uncompressed length, vint number of pages, compressed (string title, string text) of every page;
+// then the block index (long offset, vlong number of the first page of every block) and the footer
+// (long offset of the block index, int number of blocks, long number of pages, MAGIC)
+// usage: PageStore <page store> [<title>]
+public class PageStore implements Closeable {
+
+    private static final int MAGIC = 0x50475331; // PGS1
+    private static final int FOOTER_LENGTH = 8 + 4 + 8 + 4;
+    private static final int BLOCK_SIZE = 1 << 16; // uncompressed bytes of a block at least, unless it is the last one
+    private static final Pattern INFOBOX_PATTERN = Pattern.compile("\\{\\s*\\{\\s*Infobox", Pattern.CASE_INSENSITIVE);
+
+    private final FileChannel channel;
+    private final long[] blockOffsets; // one more entry for the start of the block index
+    private final long[] firstPages; // number of the first page of every block
+    private final long pageCount;
+    private final Decompressor decompressor = CompressionMode.FAST.newDecompressor();
+
+    private PageStore(FileChannel channel, long[] blockOffsets, long[] firstPages, long pageCount) {
+        this.channel = channel;
+        this.blockOffsets = blockOffsets;
+        this.firstPages = firstPages;
+        this.pageCount = pageCount;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: PageStore <page store> [<title>]");
+            return;
+        }
+        try (PageStore store = open(Paths.get(args[0]))) {
+            System.out.println(store.getPageCount() + " pages in " + store.getBlockCount() + " blocks");
+            if (args.length < 2)
+                return;
+            for (int block = 0; block < store.getBlockCount(); block++) {
+                for (WikiPage page : store.readBlock(block, store.decompressor.clone())) {
+                    if (args[1].equals(page.title))
+                        System.out.println(page.text);
+                }
+            }
+        }
+    }
+
+    public static PageStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer footer = read(channel, channel.size() - FOOTER_LENGTH, FOOTER_LENGTH);
+            long indexOffset = footer.getLong();
+            int blockCount = footer.getInt();
+            long pageCount = footer.getLong();
+            if (footer.getInt() != MAGIC || read(channel, 0, 4).getInt() != MAGIC)
+                throw new IOException("Not a page store: " + path);
+            ByteBuffer index = read(channel, indexOffset, (int) (channel.size() - FOOTER_LENGTH - indexOffset));
+            ByteArrayDataInput in = new ByteArrayDataInput(index.array());
+            long[] blockOffsets = new long[blockCount + 1];
+            long[] firstPages = new long[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = in.readLong();
+                firstPages[i] = in.readVLong();
+            }
+            blockOffsets[blockCount] = indexOffset;
+            return new PageStore(channel, blockOffsets, firstPages, pageCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getBlockCount() {
+        return firstPages.length;
+    }
+
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    // page with the given number (in the order of the dump), null if there is none
+    public WikiPage getPage(long page) throws IOException {
+        if (page < 0 || page >= pageCount)
+            return null;
+        int block = Arrays.binarySearch(firstPages, page);
+        if (block < 0)
+            block = -block - 2;
+        return readBlock(block, decompressor.clone()).get((int) (page - firstPages[block]));
+    }
+
+    // pages of one block, blocks can be read concurrently with a decompressor per thread
+    public List<WikiPage> readBlock(int block, Decompressor blockDecompressor) throws IOException {
+        long offset = blockOffsets[block];
+        ByteBuffer compressed = read(channel, offset, (int) (blockOffsets[block + 1] - offset));
+        IngestMetrics.get().inputBytes.add(compressed.capacity());
+        ByteArrayDataInput in = new ByteArrayDataInput(compressed.array());
+        int length = in.readVInt();
+        int pages = in.readVInt();
+        BytesRef bytes = new BytesRef();
+        blockDecompressor.decompress(in, length, 0, length, bytes);
+        ByteArrayDataInput pageInput = new ByteArrayDataInput(bytes.bytes, bytes.offset, bytes.length);
+        List<WikiPage> result = new ArrayList<>(pages);
+        for (int i = 0; i < pages; i++) {
+            result.add(new WikiPage(pageInput.readString(), pageInput.readString()));
+        }
+        return result;
+    }
+
+    // positional read, safe for concurrent readers of the channel
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException("Page store is truncated");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // extract alternate names of all pages of the store again, blocks are decompressed and extracted on several threads
+    public static void extract(String path, int threads) throws IOException {
+        try (PageStore store = open(Paths.get(path))) {
+            Indexer.initWriter();
+            AtomicInteger nextBlock = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(() -> {
+                        Decompressor blockDecompressor = store.decompressor.clone();
+                        List<Document> documents = new ArrayList<>();
+                        for (int block; (block = nextBlock.getAndIncrement()) < store.getBlockCount(); ) {
+                            for (WikiPage page : store.readBlock(block, blockDecompressor)) {
+                                Indexer.createDocuments(Parser.extractPage(page), documents);
+                            }
+                            if (!documents.isEmpty())
+                                Indexer.addDocuments(documents);
+                            documents.clear();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Extraction was interrupted");
+            } catch (ExecutionException e) {
+                throw new IOException("Extraction failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            Indexer.writer.commit();
+        }
+        Parser.printStatistics(); // ** STATISTICS **
+    }
+
+    // text up to the end of the line where the last infobox of the page is closed, the whole text if an infobox is not closed
+    static String infoboxSpan(String text) {
+        Matcher matcher = INFOBOX_PATTERN.matcher(text);
+        int end = 0;
+        while (end < text.length() && matcher.find(end)) {
+            int depth = 1; // the match opens the infobox, possibly with whitespace between the braces
+            int i = matcher.end();
+            for (; i < text.length() - 1; i++) {
+                char c = text.charAt(i);
+                if (c == '{' && text.charAt(i + 1) == '{') {
+                    depth++;
+                    i++;
+                }
+                else if (c == '}' && text.charAt(i + 1) == '}') {
+                    depth--;
+                    i++;
+                    if (depth == 0)
+                        break;
+                }
+            }
+            if (depth != 0)
+                return text;
+            int lineEnd = text.indexOf('\n', i);
+            end = lineEnd < 0 ? text.length() : lineEnd;
+        }
+        return end == 0 ? text : text.substring(0, end);
+    }
+
+    // appends pages to a new page store, the store is complete after close
+    public static class Writer implements Closeable {
+        private final Path path;
+        private final Path tmp;
+        private final FileChannel channel;
+        private final Compressor compressor = CompressionMode.FAST.newCompressor();
+        private final ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE * 2);
+        private final OutputStreamDataOutput blockOutput = new OutputStreamDataOutput(block);
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final OutputStreamDataOutput indexOutput = new OutputStreamDataOutput(index);
+        private byte[] compressed = new byte[0];
+        private int blockCount;
+        private int blockPages;
+        private long pageCount;
+
+        public Writer(Path path) throws IOException {
+            this.path = path;
+            this.tmp = Paths.get(path + ".tmp");
+            this.channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC);
+            header.flip();
+            write(header);
+        }
+
+        // pages without infobox are skipped, pages are stored in the order they are added
+        public synchronized void add(WikiPage page) throws IOException {
+            if (page.title == null || page.text == null || !INFOBOX_PATTERN.matcher(page.text).find())
+                return;
+            blockOutput.writeString(page.title);
+            blockOutput.writeString(infoboxSpan(page.text));
+            blockPages++;
+            if (block.size() >= BLOCK_SIZE)
+                flush();
+        }
+
+        private void flush() throws IOException {
+            if (blockPages == 0)
+                return;
+            byte[] bytes = block.toByteArray();
+            int bound = bytes.length + (bytes.length >>> 7) + 64 + 10; // worst case of LZ4 and two vints
+            if (compressed.length < bound)
+                compressed = new byte[bound];
+            ByteArrayDataOutput out = new ByteArrayDataOutput(compressed);
+            out.writeVInt(bytes.length);
+            out.writeVInt(blockPages);
+            compressor.compress(bytes, 0, bytes.length, out);
+            indexOutput.writeLong(channel.position());
+            indexOutput.writeVLong(pageCount);
+            write(ByteBuffer.wrap(compressed, 0, out.getPosition()));
+            blockCount++;
+            pageCount += blockPages;
+            blockPages = 0;
+            block.reset();
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        public synchronized long getPageCount() {
+            return pageCount + blockPages;
+        }
+
+        // write the block index and move the store to its path
+        public synchronized void close() throws IOException {
+            if (!channel.isOpen())
+                return;
+            flush();
+            long indexOffset = channel.position();
+            write(ByteBuffer.wrap(index.toByteArray()));
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_LENGTH).putLong(indexOffset).putInt(blockCount).putLong(pageCount).putInt(MAGIC);
+            footer.flip();
+            write(footer);
+            channel.force(true);
+            channel.close();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Page store: " + pageCount + " pages in " + blockCount + " blocks");
+        }
+    }
+}
@@ -0,0 +1,615 @@
+package alternatenames;
+
+import net.java.textilej.parser.MarkupParser;
+import net.java.textilej.parser.builder.HtmlDocumentBuilder;
+import net.java.textilej.parser.markup.mediawiki.MediaWikiDialect;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.compress.utils.CountingInputStream;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Whitelist;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.apache.commons.lang3.StringEscapeUtils.unescapeHtml4;
+
+public class Parser {
+
+    public static final String RENDERER_TEXTILE = "textile";
+    public static final String RENDERER_DIRECT = "direct";
+
+    private static Indexer indexer;
+    public static String renderer = RENDERER_TEXTILE; // how wikitext of parameter values is turned into plain text
+    public static boolean printAlternateNames = true; // print every title with its alternate names while parsing
+    public static long checkpointInterval = 0; // commit a checkpoint every that many pages, 0 = no checkpoints
+    public static PageStore.Writer pageStore; // null = do not keep pages with infobox for extracting them again, see PageStore
+    public static Quarantine quarantine; // null = pages that exceed ExtractionBudget are only counted
+    public static RecordFile.Writer recordWriter; // null = extracted records go only to the index, see RecordIndexer
+
+    // keys of the commit user data written at checkpoints
+    public static final String CHECKPOINT_FILE = "checkpoint.file";
+    public static final String CHECKPOINT_PAGES = "checkpoint.pages"; // number of fully processed pages
+    public static final String CHECKPOINT_TITLE = "checkpoint.title"; // title of the last processed page
+    public static final String CHECKPOINT_OFFSET = "checkpoint.offset"; // compressed bytes read so far
+    public static final String CHECKPOINT_COMPLETE = "checkpoint.complete";
+    public static final String CHECKPOINT_COMPLETED_FILES = "checkpoint.completedFiles"; // files completely in the index, one per line
+    public static final String CHECKPOINT_RECORDS = "checkpoint.records"; // end of the record file, only with a record writer
+    private static final Set<String> completedFiles = new LinkedHashSet<>(); // of this run and of the run that is resumed
+    // statistics are shared by all threads parsing parts of a dump
+    private static final IngestMetrics metrics = IngestMetrics.get();
+
+    private static final Pattern REF_PATTERN = Pattern.compile("<\\s*(?i:ref)[^>]*>[^<]*</\\s*(?i:ref)\\s*>");
+    private static final Pattern SUP_PATTERN = Pattern.compile("<\\s*(?i:sup)[^>]*>[^<]*</\\s*(?i:sup)\\s*>");
+    private static final Pattern REF_TAG_PATTERN = Pattern.compile("<\\/?\\s*(?i:ref)[^>]*\\/?>");
+    private static final Pattern ASTERISK_PATTERN = Pattern.compile("\\*");
+    private static final Pattern ESCAPED_LT_PATTERN = Pattern.compile("\\s*&lt;\\s*");
+    private static final Pattern ESCAPED_GT_PATTERN = Pattern.compile("\\s*&gt;\\s*");
+    private static final Pattern BR_PATTERN = Pattern.compile("(</?\\s*)((?i:br))(\\s*/?>)");
+    private static final Pattern QUOTES_PATTERN = Pattern.compile("(\")([^\"]+)(\")");
+    private static final Pattern APOSTROPHES_PATTERN = Pattern.compile("(')([^']+)(')");
+    private static final Pattern TITLE_PATTERN = Pattern.compile("(<\\s*title\\s*>)([^<]*)(<\\/\\s*title\\s*>)", Pattern.CASE_INSENSITIVE); // (<\s*title\s*>)([^<]*)(<\/\s*title\s*>)
+    private static final Pattern INFOBOX_PATTERN = Pattern.compile("(\\{\\s*\\{\\s*Infobox\\s*)(.*)", Pattern.CASE_INSENSITIVE); // ({\s*{\s*Infobox\s*)(.*)
+    // values of a parameter, separators of lists and templates that span several lines, matched against ExtractionBudget.guard
+    private static final Pattern OTHER_PARAMETERS_PATTERN = Pattern.compile("(.*?)(\\s*\\|[^\\=\\|]*=.*)", Pattern.CASE_INSENSITIVE); // (.*?)(\s*\|[^\=\|]*=.*)
+    private static final Pattern BR_LIST_PATTERN = Pattern.compile(".*<\\s*(?i:br)\\s*\\/?>.*"); // .*&lt;\s*br\s*\/?&gt;.*
+    private static final Pattern BR_SEPARATOR_PATTERN = Pattern.compile("\\s*<\\s*(?i:br)\\s*\\/?>\\s*"); // \s*&lt;\s*br\s*\/?&gt;\s*
+    private static final Pattern COMMA_LIST_PATTERN = Pattern.compile(".*,(?![^\\(]*\\)).*"); // .*,(?![^\(]*\)).*
+    private static final Pattern COMMA_SEPARATOR_PATTERN = Pattern.compile("\\s*(,)(?![^\\(]*\\))\\s*");
+    private static final Pattern TEMPLATE_START_PATTERN = Pattern.compile("^\\s*\\{\\s*\\{[^}]*$"); // {{ without closing }}
+    private static final Pattern TEMPLATE_END_PATTERN = Pattern.compile(".*}\\s*}.*");
+    private static final Pattern UNOPENED_TEMPLATE_END_PATTERN = Pattern.compile("^[^{]*}\\s*}.*"); // }} without starting {{
+    private static final Pattern INFOBOX_NAME_PATTERN = Pattern.compile("(\\|\\s*name\\s*=\\s*)(.*)", Pattern.CASE_INSENSITIVE); // (\|\s*name\s*=)(.*)
+    // names of parameters where the parser will look for alternate names
+    public static final List<String> DEFAULT_ALIAS_PARAMETERS = Collections.unmodifiableList(Arrays.asList("aka", "alt_name", "alternate_name"));
+    private static volatile List<String> aliasParameters;
+    private static volatile Pattern akaPattern; // (\|\s*(?:aka|alt_name|alternate_name)\s*=)(.*)
+    private static volatile KeywordMatcher parameterMatcher; // finds candidate lines for INFOBOX_NAME_PATTERN and akaPattern
+    private static final Pattern UNWANTED_TITLE_PATTERN = Pattern.compile("^(wikipedia|template|draft):.*", Pattern.CASE_INSENSITIVE); // ^(wikipedia|template|draft):.*
+
+    static {
+        setAliasParameters(DEFAULT_ALIAS_PARAMETERS);
+    }
+
+    public Parser() {
+    }
+
+    // set names of infobox parameters that contain alternate names, such as native_name, other_name, nickname or former_name
+    public static synchronized void setAliasParameters(List<String> parameters) {
+        parameters = parameters.stream().map(p -> p.trim().toLowerCase()).collect(Collectors.toList());
+        StringBuilder alternatives = new StringBuilder();
+        for (String parameter : parameters) {
+            if (alternatives.length() > 0)
+                alternatives.append('|');
+            alternatives.append(Pattern.quote(parameter));
+        }
+        List<String> keywords = new ArrayList<>(parameters);
+        keywords.add("name"); // also infobox name
+        akaPattern = Pattern.compile("(\\|\\s*((?:" + alternatives + "))\\s*=\\s*)(.*)", Pattern.CASE_INSENSITIVE);
+        parameterMatcher = new KeywordMatcher(keywords);
+        aliasParameters = Collections.unmodifiableList(parameters);
+    }
+
+    public static List<String> getAliasParameters() {
+        return aliasParameters;
+    }
+
+    public static List<String> getAlternateNames(String line) {
+        List<String> alternateNames = new ArrayList<>();
+
+        // check if line contains any other parameters and remove them
+        Matcher matcher = OTHER_PARAMETERS_PATTERN.matcher(ExtractionBudget.guard(line));
+        if (matcher.find()) {
+            line = matcher.group(1);
+        }
+
+        // if line is empty string, return empty list
+        if ("".equals(line))
+            return alternateNames;
+
+        // check if values are in some kind of a list
+        // unbulleted list
+        Pattern pattern = Pattern.compile("(\\{\\s*\\{\\s*unbulleted\\s+list\\s*\\|\\s*)([^}]*)(}\\s*})\\s*(.*)", Pattern.CASE_INSENSITIVE); // (\{\s*\{\s*unbulleted\s+list\s*\|\s*)([^}]*)(}\s*})
+        matcher = pattern.matcher(ExtractionBudget.guard(line));
+        if (matcher.find()) {
+            Collections.addAll(alternateNames, matcher.group(2).split("\\s*\\|\\s*")); // 2nd group contains values of the list
+            if (matcher.group(4).length() > 0) {
+                List<String> tmpList = new ArrayList<>(getAlternateNames(removeHtmlTags(matcher.group(4))));
+                Collections.addAll(alternateNames, tmpList.toArray(new String[0]));
+            }
+            return alternateNames;
+        }
+        else {
+            // ubl
+            pattern = Pattern.compile("(\\{\\s*\\{\\s*ubl\\s*\\|\\s*)([^}]*)(}\\s*}\\s*(.*))", Pattern.CASE_INSENSITIVE); // (\{\s*\{\s*ubl\s*\|\s*)([^}]*)(}\s*})
+            matcher = pattern.matcher(ExtractionBudget.guard(line));
+            if (matcher.find()) {
+                Collections.addAll(alternateNames, matcher.group(2).split("\\s*\\|\\s*")); // 2nd group contains values of the list
+                if (matcher.group(4).length() > 0) {
+                    List<String> tmpList = new ArrayList<>(getAlternateNames(removeHtmlTags(matcher.group(4))));
+                    Collections.addAll(alternateNames, tmpList.toArray(new String[0]));
+                }
+                return alternateNames;
+            }
+            else {
+                // plainlist or plain list
+                pattern = Pattern.compile("(\\{\\s*\\{\\s*plain\\s*list\\s*\\|\\s*)([^}]*)(}\\s*})\\s*(.*)", Pattern.CASE_INSENSITIVE); // (\{\s*\{\s*plain\s*list\s*\|\s*)([^}]*)(}\s*})
+                matcher = pattern.matcher(ExtractionBudget.guard(line));
+                if (matcher.find()) {
+                    Collections.addAll(alternateNames, matcher.group(2).replaceAll("^[^<]*<(?i:br)>\\s*", "").split("\\s*<br>\\s*")); // 2nd group contains values of the list
+                    if (matcher.group(4).length() > 0) {
+                        List<String> tmpList = new ArrayList<>(getAlternateNames(removeHtmlTags(matcher.group(4))));
+                        Collections.addAll(alternateNames, tmpList.toArray(new String[0]));
+                    }
+                    return alternateNames;
+                }
+                else {
+                    // hlist
+                    pattern = Pattern.compile("(\\{\\s*\\{\\s*hlist\\s*\\|\\s*)([^}]*)(}\\s*})\\s*(.*)", Pattern.CASE_INSENSITIVE); // (\{\s*\{\s*hlist\s*\|\s*)([^}]*)(}\s*})\s*(.*)
+                    matcher = pattern.matcher(ExtractionBudget.guard(line));
+                    if (matcher.find()) {
+                        Collections.addAll(alternateNames, matcher.group(2).split("\\s*\\|\\s*")); // 2nd group contains values of the list
+                        if (matcher.group(4).length() > 0) {
+                            List<String> tmpList = new ArrayList<>(getAlternateNames(removeHtmlTags(matcher.group(4))));
+                            Collections.addAll(alternateNames, tmpList.toArray(new String[0]));
+                        }
+                        return alternateNames;
+                    }
+                    else {
+                        // flatlist
+                        pattern = Pattern.compile("(\\{\\s*\\{\\s*flatlist\\s*\\|\\s*)([^}]*)(}\\s*})\\s*(.*)", Pattern.CASE_INSENSITIVE); // (\{\s*\{\s*flatlist\s*\|\s*)([^}]*)(}\s*})
+                        matcher = pattern.matcher(ExtractionBudget.guard(line));
+                        if (matcher.find()) {
+                            Collections.addAll(alternateNames, matcher.group(2).replaceAll("^[^<]*<(?i:br)>\\s*", "").split("\\s*<br>\\s*")); // 2nd group contains values of the list
+                            if (matcher.group(4).length() > 0) {
+                                List<String> tmpList = new ArrayList<>(getAlternateNames(removeHtmlTags(matcher.group(4))));
+                                Collections.addAll(alternateNames, tmpList.toArray(new String[0]));
+                            }
+                            return alternateNames;
+                        }
+                        else {
+                            // collapsible list
+                            pattern = Pattern.compile("(\\{\\s*\\{\\s*collapsible\\s+list\\s*\\|\\s*)([^}]*)(}\\s*})\\s*(.*)", Pattern.CASE_INSENSITIVE); // (\{\s*\{\s*collapsible\s+list\s*\|\s*)([^}]*)(}\s*})
+                            matcher = pattern.matcher(ExtractionBudget.guard(line));
+                            if (matcher.find()) {
+                                Collections.addAll(alternateNames, matcher.group(2).split("\\s*\\|\\s*")); // 2nd group contains values of the list
+                                if (matcher.group(4).length() > 0) {
+                                    List<String> tmpList = new ArrayList<>(getAlternateNames(removeHtmlTags(matcher.group(4))));
+                                    Collections.addAll(alternateNames, tmpList.toArray(new String[0]));
+                                }
+                                return alternateNames;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // find out which delimiter is used, split the line by it and add results to list
+        if (BR_LIST_PATTERN.matcher(ExtractionBudget.guard(line)).matches())
+            Collections.addAll(alternateNames, BR_SEPARATOR_PATTERN.split(ExtractionBudget.guard(line)));
+        else if (COMMA_LIST_PATTERN.matcher(ExtractionBudget.guard(line)).matches())
+            Collections.addAll(alternateNames, COMMA_SEPARATOR_PATTERN.split(ExtractionBudget.guard(line)));
+
+        // if no delimiter was found, add the whole line to list
+        if (alternateNames.isEmpty())
+            alternateNames.add(line);
+
+        return alternateNames
+                .stream()
+                .filter(x -> !x.matches("^\\s*$"))
+                .collect(Collectors.toList());
+    }
+
+    public static List<String> recheckAlternateNames(List<String> alternateNames) {
+        if (RENDERER_DIRECT.equals(renderer))
+            return recheckRenderedAlternateNames(alternateNames);
+        List<String> recheckedAlternateNames = new ArrayList<>();
+        for (int i = 0; i < alternateNames.size(); i++) {
+            String tmp = Jsoup.parse(alternateNames.get(i)).text() // decode HTML and remove redundant apostrophes
+                    .replaceAll("(\")([^\"]+)(\")", "$2")
+                    .replaceAll("(')([^']+)(')", "$2")
+                    .replaceAll("(')([^']+)(')", "$2")
+                    .replaceAll("(')([^']+)(')", "$2") // must be replaced 3 times, because there might be 3 apostrophes, for example see Wikipedia article National Park to Park Highway, parameter alternate_name in the infobox
+                    .replaceAll("(«)([^»]+)(»)", "$2");
+            if (tmp.matches("^(?!\\s*$).+")) { // non empty string
+                recheckedAlternateNames.add(tmp);
+            }
+        }
+        return recheckedAlternateNames;
+    }
+
+    public static void parse(String fileName) throws IOException, CompressorException {
+        if (checkpointInterval > 0) {
+            parse(fileName, false);
+            return;
+        }
+        PageScanner in = PageScanner.open(fileName);
+        Indexer.initWriter();
+        parse(in);
+        in.close();
+        printStatistics(); // ** STATISTICS **
+        //printHistogram(); // ** STATISTICS **
+    }
+
+    // parse file and commit a checkpoint every checkpointInterval pages, resume skips files that are completely in the index
+    // and continues the file of the last checkpoint after its last page
+    public static void parse(String fileName, boolean resume) throws IOException, CompressorException {
+        Indexer.initWriter();
+        Indexer.rollbackOnExit = true;
+        long skip = 0; // pages that are already in the index
+        if (resume) {
+            Map<String, String> checkpoint = Indexer.getCommitData();
+            String files = checkpoint.get(CHECKPOINT_COMPLETED_FILES);
+            if (files != null && !files.isEmpty())
+                Collections.addAll(completedFiles, files.split("\n"));
+            String recordsEnd = checkpoint.get(CHECKPOINT_RECORDS);
+            if (recordWriter != null && recordsEnd != null)
+                recordWriter.truncate(Long.parseLong(recordsEnd)); // records of pages after the checkpoint are extracted again
+            if (fileName.equals(checkpoint.get(CHECKPOINT_FILE)) && "true".equals(checkpoint.get(CHECKPOINT_COMPLETE)))
+                completedFiles.add(fileName); // checkpoint written before completed files were recorded
+            if (completedFiles.contains(fileName)) {
+                System.out.println("Skipping " + fileName + ", it is already in the index");
+                return;
+            }
+            if (fileName.equals(checkpoint.get(CHECKPOINT_FILE))) {
+                skip = Long.parseLong(checkpoint.get(CHECKPOINT_PAGES));
+                System.out.println("Resuming " + fileName + " after page " + skip + " (" + checkpoint.get(CHECKPOINT_TITLE) + ")");
+            }
+        }
+        CountingInputStream compressed = new CountingInputStream(IngestMetrics.meter(new FileInputStream(fileName)));
+        InputStream input = new CompressorStreamFactory(true).createCompressorInputStream(new BufferedInputStream(compressed, 1 << 16));
+        PageScanner in = new PageScanner(input, 1 << 20);
+        long pages = 0;
+        String title = "";
+        WikiPage page;
+        while ((page = in.next()) != null) {
+            if (++pages <= skip)
+                continue;
+            index(extractPage(page));
+            if (page.title != null)
+                title = page.title;
+            if (checkpointInterval > 0 && pages % checkpointInterval == 0)
+                checkpoint(fileName, pages, title, compressed.getBytesRead(), false);
+        }
+        checkpoint(fileName, pages, title, compressed.getBytesRead(), true);
+        in.close();
+        printStatistics(); // ** STATISTICS **
+    }
+
+    // commit all pages up to and including the given page, together with the position in the dump
+    private static void checkpoint(String fileName, long pages, String title, long compressedOffset, boolean complete) throws IOException {
+        Map<String, String> checkpoint = new HashMap<>();
+        checkpoint.put(CHECKPOINT_FILE, fileName);
+        checkpoint.put(CHECKPOINT_PAGES, String.valueOf(pages));
+        checkpoint.put(CHECKPOINT_TITLE, title);
+        checkpoint.put(CHECKPOINT_OFFSET, String.valueOf(compressedOffset));
+        checkpoint.put(CHECKPOINT_COMPLETE, String.valueOf(complete));
+        if (complete)
+            completedFiles.add(fileName);
+        checkpoint.put(CHECKPOINT_COMPLETED_FILES, String.join("\n", completedFiles));
+        if (recordWriter != null)
+            checkpoint.put(CHECKPOINT_RECORDS, String.valueOf(recordWriter.sync()));
+        Indexer.commit(checkpoint);
+    }
+
+    // parse file with a pipeline of one reader, several extraction workers and one batched index writer
+    public static void parse(String fileName, int workers) throws IOException, CompressorException {
+        PageScanner in = PageScanner.open(fileName);
+        IngestPipeline pipeline = new IngestPipeline(workers, 1024, 1000);
+        try {
+            Indexer.initWriter();
+            pipeline.run(in, 30);
+        } finally {
+            in.close();
+        }
+        System.out.println(pipeline.getStatus());
+        printStatistics(); // ** STATISTICS **
+    }
+
+    // parse pages from already decompressed input and add their alternate names to the index
+    public static void parse(PageScanner in) throws IOException {
+        WikiPage page;
+        while ((page = in.next()) != null) {
+            index(extractPage(page));
+        }
+    }
+
+    // parse pages from already decompressed input and add their alternate names to the index of writer
+    public static void parse(PageScanner in, IndexWriter writer) throws IOException {
+        WikiPage page;
+        while ((page = in.next()) != null) {
+            List<AliasRecord> records = extractPage(page);
+            if (!records.isEmpty())
+                Indexer.addRecords(writer, records);
+        }
+    }
+
+    // find alternate names in the infobox of a page, the last record contains alternate names of all tags
+    public static List<AliasRecord> extractPage(WikiPage page) {
+        long start = System.nanoTime();
+        List<AliasRecord> records = new ArrayList<>();
+        if (page.title == null)
+            return records;
+        metrics.pages.increment();
+        if (page.text != null) {
+            if (pageStore != null) {
+                try {
+                    pageStore.add(page);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            ExtractionBudget.start();
+            try {
+                extractPage(page, records);
+            } catch (ExtractionBudget.Exceeded e) { // alternate names found so far are kept
+                quarantine(page, e.getMessage());
+            } finally {
+                ExtractionBudget.stop();
+            }
+            addAllTags(page.title, records);
+            if (recordWriter != null) {
+                try {
+                    recordWriter.add(records);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        metrics.addExtraction(System.nanoTime() - start);
+        return records;
+    }
+
+    private static void extractPage(WikiPage page, List<AliasRecord> records) {
+        String title = page.title;
+        String[] lines = page.text.split("\n");
+        String line, aka, infoboxName = "";
+        int infoboxesInTitle = 0;
+        List<String> alternateNames;
+        Matcher matcher;
+        int i = 0;
+        // try to find INFOBOX
+        while (i < lines.length && !INFOBOX_PATTERN.matcher(lines[i]).find())
+            i++;
+        // try to find AKA
+        for (; i < lines.length; i++) {
+            ExtractionBudget.check();
+            line = lines[i];
+            // skip lines without any parameter of interest
+            if (!parameterMatcher.containsAny(line))
+                continue;
+            // try to find NAME
+            matcher = INFOBOX_NAME_PATTERN.matcher(line);
+            if (matcher.find()) {
+                infoboxName = matcher.group(2);
+                continue;
+            }
+            // try to find AKA
+            matcher = akaPattern.matcher(line);
+            if (!matcher.find())
+                continue;
+            aka = matcher.group(3);
+            String tag = matcher.group(2).toLowerCase();
+            if ("".equals(aka))
+                continue;
+            if (matches(UNOPENED_TEMPLATE_END_PATTERN, aka)) // missing starting {{ --> ignore
+                continue;
+            if (matches(TEMPLATE_START_PATTERN, aka)) { // missing closing }} --> read and concat lines until }} found
+                StringBuilder value = new StringBuilder(aka);
+                boolean truncated = false; // lines are still read to the end of the template, but no longer kept
+                while (++i < lines.length) {
+                    ExtractionBudget.check();
+                    line = removeHtmlTags(lines[i]);
+                    truncated |= !append(value, line);
+                    if (matches(TEMPLATE_END_PATTERN, line)) {
+                        break;
+                    }
+                    else if (matches(TEMPLATE_START_PATTERN, line)) {
+                        while (++i < lines.length) {
+                            ExtractionBudget.check();
+                            line = removeHtmlTags(lines[i]);
+                            truncated |= !append(value, line);
+                            if (matches(UNOPENED_TEMPLATE_END_PATTERN, line)) {
+                                break;
+                            }
+                        }
+                    }
+                }
+                if (truncated) {
+                    quarantine(page, "value of " + tag + " is longer than " + ExtractionBudget.maxTemplateChars + " characters");
+                    continue;
+                }
+                aka = value.toString();
+            }
+            else if (aka.length() > ExtractionBudget.maxTemplateChars) {
+                quarantine(page, "value of " + tag + " is longer than " + ExtractionBudget.maxTemplateChars + " characters");
+                continue;
+            }
+            alternateNames = new ArrayList<>(getAlternateNames(removeHtmlTags(aka)));
+            alternateNames = new ArrayList<>(recheckAlternateNames(alternateNames));
+            // ignore title starting with certain prefix, such as Wikipedia:, Template: or Draft:
+            if (!UNWANTED_TITLE_PATTERN.matcher(title).find()) {
+                metrics.infoboxes.increment();
+                infoboxesInTitle++;
+                if (infoboxesInTitle == 1) {
+                    metrics.titlesWithAlternateNames.increment();
+                }
+                metrics.alternateNames.add(alternateNames.size());
+                metrics.addToHistogram(alternateNames.size(), tag);
+                if (printAlternateNames)
+                    print(title, infoboxName, alternateNames);
+                records.add(new AliasRecord(title, infoboxName, tag, alternateNames));
+            }
+        }
+    }
+
+    // record with the alternate names of all tags of the page
+    private static void addAllTags(String title, List<AliasRecord> records) {
+        List<String> alternateNamesAll = new ArrayList<>();
+        for (AliasRecord record : records) {
+            alternateNamesAll.addAll(record.alternateNames);
+        }
+        if (alternateNamesAll.size() > 0) {
+            metrics.addToHistogram(alternateNamesAll.size(), "all_tags");
+            records.add(new AliasRecord(title, "", "all_tags", alternateNamesAll));
+        }
+    }
+
+    private static boolean matches(Pattern pattern, String s) {
+        return pattern.matcher(ExtractionBudget.guard(s)).matches();
+    }
+
+    // false if value would get longer than ExtractionBudget.maxTemplateChars
+    private static boolean append(StringBuilder value, String line) {
+        if (value.length() + line.length() > ExtractionBudget.maxTemplateChars)
+            return false;
+        value.append(line);
+        return true;
+    }
+
+    // page that was cut short or whose parameter was skipped
+    private static void quarantine(WikiPage page, String reason) {
+        metrics.quarantinedPages.increment();
+        if (quarantine == null)
+            return;
+        try {
+            quarantine.add(page, reason);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // buffered reader for reading zip file
+    // src: https://stackoverflow.com/questions/4834721/java-read-bz2-file-and-uncompress-parse-on-the-fly
+    public static BufferedReader getBufferedReaderForCompressedFile(String fileIn) throws FileNotFoundException, CompressorException {
+        BufferedReader br = new BufferedReader(new InputStreamReader(getInputStreamForCompressedFile(fileIn)));
+        return br;
+    }
+
+    // decompressed bytes of zip file
+    public static InputStream getInputStreamForCompressedFile(String fileIn) throws FileNotFoundException, CompressorException {
+        InputStream fin = IngestMetrics.meter(new FileInputStream(fileIn));
+        BufferedInputStream bis = new BufferedInputStream(fin, 1 << 16);
+        CompressorInputStream input = new CompressorStreamFactory(true).createCompressorInputStream(bis);
+        return input;
+    }
+
+    // names rendered by WikitextRenderer are already decoded, only remove redundant quotes and apostrophes
+    private static List<String> recheckRenderedAlternateNames(List<String> alternateNames) {
+        List<String> recheckedAlternateNames = new ArrayList<>();
+        for (String alternateName : alternateNames) {
+            String tmp = QUOTES_PATTERN.matcher(alternateName).replaceAll("$2");
+            for (int i = 0; i < 3; i++) {
+                tmp = APOSTROPHES_PATTERN.matcher(tmp).replaceAll("$2");
+            }
+            tmp = tmp.trim();
+            if (!tmp.isEmpty()) {
+                recheckedAlternateNames.add(tmp);
+            }
+        }
+        return recheckedAlternateNames;
+    }
+
+    public static String removeHtmlTags(String input) {
+        long start = System.nanoTime();
+        String text = RENDERER_DIRECT.equals(renderer) ? WikitextRenderer.render(input) : renderTextile(input);
+        metrics.render.add(System.nanoTime() - start);
+        return text;
+    }
+
+    private static String renderTextile(String input) {
+        String tmp = unescapeHtml4(input);
+        tmp = REF_PATTERN.matcher(tmp).replaceAll("");
+        tmp = SUP_PATTERN.matcher(tmp).replaceAll("");
+        tmp = REF_TAG_PATTERN.matcher(tmp).replaceAll("");
+        // additional wikitext replacements, see TemplateUnwrapper for the list of supported templates,
+        // before rendering because textile leaves the arguments of templates as they are
+        tmp = TemplateUnwrapper.unwrap(tmp);
+        tmp = ASTERISK_PATTERN.matcher(tmp).replaceAll("<br>"); // special replacement for items in plainlist and flatlist
+
+        StringWriter writer = new StringWriter();
+        HtmlDocumentBuilder builder = new HtmlDocumentBuilder(writer);
+        builder.setEmitAsDocument(false);
+        MarkupParser parser = new MarkupParser(new MediaWikiDialect());
+        parser.setBuilder(builder);
+        parser.parse(tmp);
+
+        tmp = writer.toString();
+        tmp = ESCAPED_LT_PATTERN.matcher(tmp).replaceAll("<");
+        tmp = ESCAPED_GT_PATTERN.matcher(tmp).replaceAll(">");
+        tmp = BR_PATTERN.matcher(tmp).replaceAll("<$2/>");
+        return Jsoup.clean(tmp, Whitelist.none().addTags("br")).replace("\n", "");// remove all HTML tags but "br", remove all newlines
+    }
+
+    private static void print(String title, String infoboxName, List<String> alternateNames) {
+        if (alternateNames.size() > 0) {
+            synchronized (System.out) { // keep output of parallel workers together
+                System.out.println("----------------");
+                System.out.println(title);
+                System.out.println("-");
+                for (int j = 0; j < alternateNames.size(); j++)
+                    System.out.println(alternateNames.get(j));
+            }
+        }
+    }
+
+    public static void printStatistics() {
+        System.out.println("----------------");
+        System.out.println("Total articles: " + metrics.getPages());
+        System.out.println("Total articles with alternate names: " + metrics.getTitlesWithAlternateNames());
+        System.out.println("Total infoboxes with alternate names: " + metrics.getInfoboxes());
+        System.out.println("Total alternate names: " + metrics.getAlternateNames());
+    }
+
+    private static void printHistogram() {
+        List<String> tags = new ArrayList<>(aliasParameters);
+        tags.add("all_tags");
+        for (int t = 0; t < tags.size(); t++) {
+            System.out.println(t == 0 ? "----------------" : "");
+            System.out.println(tags.get(t));
+            long[] histogram = metrics.getHistogram(tags.get(t));
+            for (int i = histogram.length - 1; i > 0; i--) {
+                if (histogram[i] != 0) {
+                    for (int j = 1; j <= i; j++)
+                        System.out.println(j + ": " + histogram[j]);
+                    break;
+                }
+            }
+        }
+    }
+
+    public static void index(List<AliasRecord> records) throws IOException {
+        if (Indexer.compactSchema) {
+            List<Document> documents = new ArrayList<>();
+            Indexer.createDocuments(records, documents);
+            if (!documents.isEmpty())
+                Indexer.addDocuments(documents);
+            return;
+        }
+        for (AliasRecord record : records) {
+            index(record.title, record.infoboxName, record.alternateNames, record.tag);
+        }
+    }
+
+    private static void index(String title, String infoboxName, List<String> alternateNames, String tag) throws IOException {
+        if (alternateNames.size() > 0) {
+            for (int i = 0; i < alternateNames.size(); i++) {
+                String alternateName = alternateNames.get(i);
+                indexer.addDocument(title, infoboxName, alternateName, tag, alternateNames.size());
+            }
+        }
+    }
+}
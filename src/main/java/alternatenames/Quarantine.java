@@ -0,0 +1,40 @@
+package alternatenames;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// pages that were cut short or had parameters skipped by ExtractionBudget, for later review
+// one line per page and reason: title, reason and the text of the page (at most maxTemplateChars) separated by tabs,
+// tabs, newlines and backslashes of the text are escaped
+public class Quarantine implements Closeable {
+
+    private final BufferedWriter out;
+
+    // appends to an existing file, so that a resumed ingest keeps earlier pages
+    public Quarantine(Path path) throws IOException {
+        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    public synchronized void add(WikiPage page, String reason) throws IOException {
+        String text = page.text.length() > ExtractionBudget.maxTemplateChars ? page.text.substring(0, ExtractionBudget.maxTemplateChars) : page.text;
+        out.write(escape(page.title));
+        out.write('\t');
+        out.write(escape(reason));
+        out.write('\t');
+        out.write(escape(text));
+        out.newLine();
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
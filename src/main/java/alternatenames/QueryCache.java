@@ -0,0 +1,121 @@
+package alternatenames;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexableField;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// least recently used pages of search results, bounded by number of entries and by approximate size of their documents,
+// all entries are dropped when the generation of the index changes
+public class QueryCache implements QueryCacheMBean {
+
+    private final int maxEntries;
+    private final long maxWeight; // bytes
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+    private long generation = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public QueryCache(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    // cached page of an index generation, null if it is not cached
+    public synchronized SearchPage get(String key, long indexGeneration) {
+        invalidate(indexGeneration);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.page;
+    }
+
+    // page must be the result of searching the given index generation, otherwise it is not cached
+    public synchronized void put(String key, long indexGeneration, SearchPage page) {
+        invalidate(indexGeneration);
+        if (indexGeneration != generation)
+            return;
+        Entry entry = new Entry(page, weigh(page));
+        if (entry.weight > maxWeight)
+            return;
+        Entry previous = entries.put(key, entry);
+        if (previous != null)
+            weight -= previous.weight;
+        weight += entry.weight;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // register the hit, miss and eviction counters with the platform MBean server
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("alternatenames:type=QueryCache"));
+        } catch (JMException e) {
+            System.err.println("Could not register query cache metrics: " + e);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // newer generation of the index makes all entries stale, an older one belongs to a search that started before the change
+    private void invalidate(long indexGeneration) {
+        if (indexGeneration > generation) {
+            clear();
+            generation = indexGeneration;
+        }
+    }
+
+    // approximate heap size of the stored fields of a page
+    private static long weigh(SearchPage page) {
+        long bytes = 128;
+        for (Document document : page.documents) {
+            bytes += 64;
+            for (IndexableField field : document.getFields()) {
+                String value = field.stringValue();
+                bytes += 48 + (value == null ? 8 : 2L * value.length());
+            }
+        }
+        return bytes;
+    }
+
+    private static class Entry {
+        final SearchPage page;
+        final long weight;
+
+        Entry(SearchPage page, long weight) {
+            this.page = page;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package alternatenames;
+
+// query cache statistics exposed through JMX
+public interface QueryCacheMBean {
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+}
@@ -0,0 +1,306 @@
+package alternatenames;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.BytesRef;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// append-only stream of the alias records extracted from pages, so that the index can be written again without parsing the dump
+// format: MAGIC, sync marker of 16 bytes, then blocks of pages compressed with LZ4 (CompressionMode.FAST), each block is
+// sync marker, vint uncompressed length, vint number of pages, vint compressed length, compressed pages;
+// a page is its vint length and vint number of records, a record is
+// string title, string infobox name, string tag, vint frequency, vint number of alternate names, string alternate names;
+// a reader of a byte range starts at the first sync marker in the range, so the file can be split between threads
+public class RecordFile {
+
+    private static final int MAGIC = 0x52434631; // RCF1
+    private static final int SYNC_LENGTH = 16;
+    private static final int HEADER_LENGTH = 4 + SYNC_LENGTH;
+    private static final int BLOCK_SIZE = 1 << 16; // uncompressed bytes of a block at least, unless it is the last one
+
+    // appends the records of pages to a new or existing record file, records of a page stay together in one block
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final byte[] sync;
+        private final Compressor compressor = CompressionMode.FAST.newCompressor();
+        private final ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE * 2);
+        private final OutputStreamDataOutput blockOutput = new OutputStreamDataOutput(block);
+        private final ByteArrayOutputStream page = new ByteArrayOutputStream();
+        private final OutputStreamDataOutput pageOutput = new OutputStreamDataOutput(page);
+        private byte[] compressed = new byte[0];
+        private int blockPages;
+
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC);
+                UUID random = UUID.randomUUID();
+                header.putLong(random.getMostSignificantBits()).putLong(random.getLeastSignificantBits());
+                header.flip();
+                write(header);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            if (header.getInt() != MAGIC)
+                throw new IOException("Not a record file: " + path);
+            sync = Arrays.copyOfRange(header.array(), 4, HEADER_LENGTH);
+            long end = lastBlockEnd(channel, sync);
+            if (end < channel.size()) {
+                System.err.println("Record file " + path + " ends with an incomplete block, truncated from " + channel.size() + " to " + end + " bytes");
+                channel.truncate(end);
+            }
+            channel.position(end);
+        }
+
+        // end of the last complete block, blocks after it were torn by a crash while they were written
+        private static long lastBlockEnd(FileChannel channel, byte[] sync) throws IOException {
+            long size = channel.size();
+            long position = HEADER_LENGTH;
+            byte[] header = new byte[SYNC_LENGTH + 15]; // sync marker and three vints
+            while (position < size) {
+                Arrays.fill(header, (byte) 0);
+                ByteBuffer buffer = ByteBuffer.wrap(header, 0, (int) Math.min(header.length, size - position));
+                readFully(channel, buffer, position);
+                int length = buffer.limit();
+                if (length < SYNC_LENGTH || !Arrays.equals(Arrays.copyOf(header, SYNC_LENGTH), sync))
+                    return position;
+                ByteArrayDataInput in = new ByteArrayDataInput(header, SYNC_LENGTH, header.length - SYNC_LENGTH);
+                in.readVInt(); // uncompressed length
+                in.readVInt(); // pages
+                int compressedLength = in.readVInt();
+                long blockEnd = position + in.getPosition() + compressedLength;
+                if (in.getPosition() > length || blockEnd > size)
+                    return position;
+                position = blockEnd;
+            }
+            return position;
+        }
+
+        // records of one page, an empty list is skipped
+        public synchronized void add(List<AliasRecord> records) throws IOException {
+            if (records.isEmpty())
+                return;
+            page.reset();
+            pageOutput.writeVInt(records.size());
+            for (AliasRecord record : records) {
+                pageOutput.writeString(record.title);
+                pageOutput.writeString(record.infoboxName);
+                pageOutput.writeString(record.tag);
+                pageOutput.writeVInt(record.alternateNames.size()); // frequency
+                pageOutput.writeVInt(record.alternateNames.size());
+                for (String alternateName : record.alternateNames) {
+                    pageOutput.writeString(alternateName);
+                }
+            }
+            blockOutput.writeVInt(page.size());
+            page.writeTo(block);
+            blockPages++;
+            if (block.size() >= BLOCK_SIZE)
+                flush();
+        }
+
+        private void flush() throws IOException {
+            if (blockPages == 0)
+                return;
+            byte[] bytes = block.toByteArray();
+            int bound = bytes.length + (bytes.length >>> 7) + 64; // worst case of LZ4
+            if (compressed.length < bound)
+                compressed = new byte[bound];
+            ByteArrayDataOutput out = new ByteArrayDataOutput(compressed);
+            compressor.compress(bytes, 0, bytes.length, out);
+            ByteArrayOutputStream blockHeader = new ByteArrayOutputStream(SYNC_LENGTH + 15);
+            OutputStreamDataOutput headerOutput = new OutputStreamDataOutput(blockHeader);
+            headerOutput.writeBytes(sync, sync.length);
+            headerOutput.writeVInt(bytes.length);
+            headerOutput.writeVInt(blockPages);
+            headerOutput.writeVInt(out.getPosition());
+            write(ByteBuffer.wrap(blockHeader.toByteArray()));
+            write(ByteBuffer.wrap(compressed, 0, out.getPosition()));
+            blockPages = 0;
+            block.reset();
+        }
+
+        // write the pending block and force it to disk, the returned end of the file can be stored with a checkpoint of the index
+        public synchronized long sync() throws IOException {
+            flush();
+            channel.force(false);
+            return channel.position();
+        }
+
+        // drop the blocks after end, the end returned by sync at the checkpoint a resumed run continues from
+        public synchronized void truncate(long end) throws IOException {
+            flush();
+            if (end < HEADER_LENGTH || end > channel.size())
+                throw new IOException("Record file has no block end at " + end + ", it has " + channel.size() + " bytes");
+            channel.truncate(end);
+            channel.position(end);
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        public synchronized void close() throws IOException {
+            if (!channel.isOpen())
+                return;
+            flush();
+            channel.force(true);
+            channel.close();
+        }
+    }
+
+    // pages of the blocks whose sync marker starts in [start, end), blocks are read and decompressed one by one
+    public static class Reader implements Closeable {
+        private final FileChannel channel;
+        private final byte[] sync = new byte[SYNC_LENGTH];
+        private final long end;
+        private final Decompressor decompressor = CompressionMode.FAST.newDecompressor();
+        private final InputStream in;
+        private final InputStreamDataInput dataIn;
+        private long position; // of in in the file
+        private byte[] compressed = new byte[0];
+        private final BytesRef bytes = new BytesRef();
+        private ByteArrayDataInput block;
+        private int blockPages;
+        private boolean synced;
+
+        public Reader(Path path, long start, long end) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            if (header.getInt() != MAGIC) {
+                channel.close();
+                throw new IOException("Not a record file: " + path);
+            }
+            header.get(sync);
+            this.end = Math.min(end, channel.size());
+            position = Math.max(start, HEADER_LENGTH);
+            in = new BufferedInputStream(Channels.newInputStream(channel.position(position)), 1 << 16) {
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0)
+                        Reader.this.position++;
+                    return b;
+                }
+
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0)
+                        Reader.this.position += n;
+                    return n;
+                }
+            };
+            dataIn = new InputStreamDataInput(in);
+        }
+
+        // records of the next page, null after the last page of the range
+        public List<AliasRecord> next() throws IOException {
+            while (blockPages == 0) {
+                if (!nextBlock())
+                    return null;
+            }
+            blockPages--;
+            block.readVInt(); // length of the page
+            int count = block.readVInt();
+            List<AliasRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String title = block.readString();
+                String infoboxName = block.readString();
+                String tag = block.readString();
+                block.readVInt(); // frequency, the number of alternate names
+                int names = block.readVInt();
+                List<String> alternateNames = new ArrayList<>(names);
+                for (int j = 0; j < names; j++) {
+                    alternateNames.add(block.readString());
+                }
+                records.add(new AliasRecord(title, infoboxName, tag, alternateNames));
+            }
+            return records;
+        }
+
+        // false if no block starts before the end of the range
+        private boolean nextBlock() throws IOException {
+            long blockStart = synced ? position : scanToSync(); // blocks follow each other after the first one
+            if (blockStart < 0 || blockStart >= end)
+                return false;
+            if (synced && !matchesSync())
+                throw new IOException("Record file is corrupt at " + blockStart);
+            int length = dataIn.readVInt();
+            blockPages = dataIn.readVInt();
+            int compressedLength = dataIn.readVInt();
+            if (compressed.length < compressedLength)
+                compressed = new byte[compressedLength];
+            dataIn.readBytes(compressed, 0, compressedLength);
+            IngestMetrics.get().inputBytes.add(compressedLength);
+            decompressor.decompress(new ByteArrayDataInput(compressed, 0, compressedLength), length, 0, length, bytes);
+            block = new ByteArrayDataInput(bytes.bytes, bytes.offset, bytes.length);
+            synced = true;
+            return true;
+        }
+
+        // read the sync marker that is expected at the current position
+        private boolean matchesSync() throws IOException {
+            for (byte b : sync) {
+                int c = in.read();
+                if (c < 0)
+                    throw new EOFException();
+                if ((byte) c != b)
+                    return false;
+            }
+            return true;
+        }
+
+        // position of the first sync marker at or after the current position, -1 if there is none
+        private long scanToSync() throws IOException {
+            byte[] window = new byte[SYNC_LENGTH];
+            int filled = 0;
+            while (true) {
+                int c = in.read();
+                if (c < 0)
+                    return -1;
+                if (filled < SYNC_LENGTH) {
+                    window[filled++] = (byte) c;
+                }
+                else {
+                    System.arraycopy(window, 1, window, 0, SYNC_LENGTH - 1);
+                    window[SYNC_LENGTH - 1] = (byte) c;
+                }
+                if (filled == SYNC_LENGTH && Arrays.equals(window, sync))
+                    return position - SYNC_LENGTH;
+            }
+        }
+
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException("Record file is truncated");
+        }
+        buffer.flip();
+    }
+}
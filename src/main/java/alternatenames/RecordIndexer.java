@@ -0,0 +1,100 @@
+package alternatenames;
+
+import org.apache.lucene.document.Document;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// write the index from a record file (see RecordFile and App --records) instead of parsing the dump again,
+// the file is split into byte ranges that are read, decompressed and indexed by one thread each
+// usage: RecordIndexer <record file> [--threads <threads>] [--merge <segments>] [--compact] [--rebuild] [--ram-buffer <MB>]
+public class RecordIndexer {
+
+    private static final int BATCH_SIZE = 1000; // documents added to the writer at once
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: RecordIndexer <record file> [--threads <threads>] [--merge <segments>] [--compact] [--rebuild] [--ram-buffer <MB>]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxSegments = 0;
+        for (int i = 1; i < args.length; i++) {
+            if ("--threads".equals(args[i]))
+                threads = Integer.parseInt(args[++i]);
+            else if ("--merge".equals(args[i]))
+                maxSegments = Integer.parseInt(args[++i]);
+            else if ("--compact".equals(args[i]))
+                Indexer.compactSchema = true;
+            else if ("--rebuild".equals(args[i]))
+                Indexer.rebuild = true;
+            else if ("--ram-buffer".equals(args[i]))
+                Indexer.bulkRamBufferMB = Double.parseDouble(args[++i]);
+        }
+        IngestMetrics.register();
+        IngestMetrics.startProgressReporter(Files.size(Paths.get(args[0])), 30);
+        index(Paths.get(args[0]), threads, maxSegments);
+        Indexer.buildLookups();
+    }
+
+    // maxSegments > 0 merges the index into that many segments when all records are indexed
+    public static void index(Path path, int threads, int maxSegments) throws IOException {
+        long start = System.nanoTime();
+        long size = Files.size(path);
+        Indexer.bulkThreads = threads;
+        Indexer.initWriter();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long from = size * i / threads;
+                long to = size * (i + 1) / threads;
+                futures.add(executor.submit(() -> indexRange(path, from, to)));
+            }
+            long pages = 0;
+            for (Future<Long> future : futures) {
+                pages += future.get();
+            }
+            System.out.println("Indexed " + pages + " pages in " + (System.nanoTime() - start) / 1_000_000_000 + " s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Indexing was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Indexing failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        if (maxSegments > 0)
+            Indexer.writer.forceMerge(maxSegments);
+        Indexer.writer.commit();
+    }
+
+    // pages of the blocks that start in [from, to)
+    private static long indexRange(Path path, long from, long to) throws IOException {
+        long pages = 0;
+        List<Document> documents = new ArrayList<>(BATCH_SIZE * 2);
+        try (RecordFile.Reader reader = new RecordFile.Reader(path, from, to)) {
+            List<AliasRecord> records;
+            while ((records = reader.next()) != null) {
+                Indexer.createDocuments(records, documents);
+                IngestMetrics.get().pages.increment();
+                pages++;
+                if (documents.size() >= BATCH_SIZE) {
+                    Indexer.addDocuments(documents);
+                    documents.clear();
+                }
+            }
+        }
+        if (!documents.isEmpty())
+            Indexer.addDocuments(documents);
+        return pages;
+    }
+}
@@ -0,0 +1,165 @@
+package alternatenames;
+
+import org.apache.lucene.queryparser.classic.ParseException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.lucene.document.Document;
+
+// usage: SearchEngine [--complete | --stats | --batch <names file> <output file> [--threads <threads>] [--completion-order]
+//                     | --serve <port> [--threads <threads>] [--timeout <milliseconds>]]
+public class SearchEngine {
+
+    private static final int PAGE_SIZE = 10;
+    private static final Set<String> RESULT_FIELDS = new HashSet<>(Arrays.asList("title", "alternateName"));
+
+    private static Indexer indexer;
+
+    public static void main(String[] args) throws IOException, ParseException {
+
+        indexer.initReader();
+        Indexer.queryCache.register();
+
+        // print statistics
+        if (args.length > 0 && "--stats".equals(args[0])) {
+            IndexStatistics statistics = IndexStatistics.compute(Indexer.reader);
+            if (statistics == null) { // index without doc values
+                System.out.println("----------------");
+                for (String tag : Parser.getAliasParameters()) {
+                    indexer.getDocumentsByTag(tag);
+                }
+                indexer.getDocumentsByTag("all_tags");
+                return;
+            }
+            statistics.print();
+            statistics.printHistogram();
+            return;
+        }
+
+        // resolve a file of names to JSON lines
+        if (args.length > 0 && "--batch".equals(args[0])) {
+            BatchLookup.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // answer lookups over HTTP until the process is stopped
+        if (args.length > 0 && "--serve".equals(args[0])) {
+            AliasServer.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        if (args.length > 0 && "--complete".equals(args[0])) {
+            complete(reader);
+            return;
+        }
+        search(reader);
+    }
+
+    // answer queries on another thread, for example while the index is being written
+    public static Thread startInBackground() {
+        Indexer.queryCache.register();
+        Thread thread = new Thread(() -> {
+            try {
+                search(new BufferedReader(new InputStreamReader(System.in)));
+            } catch (IOException | ParseException e) {
+                e.printStackTrace();
+            }
+        }, "search");
+        thread.start();
+        return thread;
+    }
+
+    // read queries until an empty line
+    public static void search(BufferedReader reader) throws IOException, ParseException {
+        while (true) {
+            System.out.print("Enter query: ");
+            String query = reader.readLine();
+            if (query == null || "".equals(query))
+                break;
+            query = query.toLowerCase();
+            // exact title is answered by the title dictionary, other queries by full-text search
+            AliasRecord exact = Indexer.lookupTitle(query);
+            if (exact != null) {
+                System.out.println("1. " + exact.title + " --- " + String.join(", ", exact.alternateNames));
+                System.out.println("");
+                continue;
+            }
+            // name that is an alternate name of some articles, printed before the matching titles
+            List<String> titles = Indexer.resolveAlias(query);
+            if (!titles.isEmpty()) {
+                System.out.println("Alternate name of:");
+                for (int i = 0; i < titles.size(); i++) {
+                    System.out.println((i + 1) + ". " + titles.get(i));
+                }
+                System.out.println("");
+            }
+            SearchPage page = Indexer.searchArticles("title", query, PAGE_SIZE, RESULT_FIELDS);
+            if (page.documents.size() == 0 && !titles.isEmpty())
+                continue; // no need for suggestions
+            if (page.documents.size() == 0) {
+                System.out.println("No alternate names found.");
+
+                List<AliasResolver.Completion> suggestions = Indexer.suggest(query, PAGE_SIZE); // print max 10 suggested names
+                if (suggestions == null) { // no spelling suggester, suggest documents sharing a word with the query
+                    SearchPage similar = Indexer.searchArticles("fullText", query, PAGE_SIZE, RESULT_FIELDS);
+                    if (similar.documents.size() > 0) {
+                        System.out.println("Did you mean:");
+                        print(similar);
+                    }
+                }
+                else if (suggestions.size() > 0) {
+                    System.out.println("Did you mean:");
+                    for (int i = 0; i < suggestions.size(); i++) {
+                        System.out.println((i + 1) + ". " + suggestions.get(i).name + " --- " + String.join(", ", suggestions.get(i).titles));
+                    }
+                }
+                System.out.println("");
+                continue;
+            }
+            print(page);
+            // show the next page of 10 documents only if the user wants to see more
+            while (page.hasMore()) {
+                System.out.print("View more? (y/n): ");
+                String more = reader.readLine().toLowerCase();
+                if (more.startsWith("y")) {
+                    page = Indexer.next(page, PAGE_SIZE);
+                    print(page);
+                }
+                else if (more.startsWith("n"))
+                    break;
+            }
+            System.out.println("");
+        }
+    }
+
+    // type-ahead: complete every entered prefix to titles and alternate names of articles with most alternate names
+    private static void complete(BufferedReader reader) throws IOException {
+        while (true) {
+            System.out.print("Enter prefix: ");
+            String prefix = reader.readLine();
+            if (prefix == null || "".equals(prefix))
+                break;
+            long start = System.nanoTime();
+            List<AliasResolver.Completion> completions = Indexer.complete(prefix, PAGE_SIZE);
+            long elapsed = System.nanoTime() - start;
+            for (int i = 0; i < completions.size(); i++) {
+                AliasResolver.Completion completion = completions.get(i);
+                System.out.println((i + 1) + ". " + completion.name + " --- " + String.join(", ", completion.titles));
+            }
+            System.out.println(completions.size() + " completions in " + (elapsed / 1000) + " us");
+            System.out.println("");
+        }
+    }
+
+    private static void print(SearchPage page) {
+        for (int i = 0; i < page.documents.size(); i++) {
+            Document document = page.documents.get(i);
+            System.out.println((page.start + i + 1) + ". " + document.get("title") + " --- " + String.join(", ", Indexer.alternateNames(document)));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package alternatenames;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import java.util.List;
+import java.util.Set;
+
+// one page of search results, also the cursor for the next page
+public class SearchPage {
+
+    public final Query query;
+    public final Set<String> fields; // stored fields loaded for every document, null = all fields
+    public final List<Document> documents;
+    public final int start; // number of hits on previous pages
+    public final int totalHits;
+    final ScoreDoc last; // last hit of this page, search of the next page continues after it
+    final String cacheKey; // key of the query in the query cache without page, null if pages are not cached
+
+    public SearchPage(Query query, Set<String> fields, List<Document> documents, int start, int totalHits, ScoreDoc last, String cacheKey) {
+        this.query = query;
+        this.fields = fields;
+        this.documents = documents;
+        this.start = start;
+        this.totalHits = totalHits;
+        this.last = last;
+        this.cacheKey = cacheKey;
+    }
+
+    public boolean hasMore() {
+        return last != null && start + documents.size() < totalHits;
+    }
+}
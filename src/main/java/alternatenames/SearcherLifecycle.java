@@ -0,0 +1,100 @@
+package alternatenames;
+
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.AlreadyClosedException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// searchers of the current index: reference-counted acquire/release, periodic refresh and an atomic switch to another index
+public class SearcherLifecycle implements Closeable {
+
+    private final AtomicReference<SearcherManager> current = new AtomicReference<>();
+    private final ScheduledExecutorService refresher;
+    private final AtomicLong generation = new AtomicLong(); // incremented whenever new searchers may see a different index
+
+    private final ReferenceManager.RefreshListener refreshListener = new ReferenceManager.RefreshListener() {
+        public void beforeRefresh() {
+        }
+
+        public void afterRefresh(boolean didRefresh) {
+            if (didRefresh)
+                generation.incrementAndGet();
+        }
+    };
+
+    // refresh near-real-time readers every refreshSeconds, 0 = never
+    public SearcherLifecycle(int refreshSeconds) {
+        if (refreshSeconds <= 0) {
+            refresher = null;
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "searcher-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    // searcher that stays open until it is released, null if no index was opened yet
+    public IndexSearcher acquire() throws IOException {
+        while (true) {
+            SearcherManager manager = current.get();
+            if (manager == null)
+                return null;
+            try {
+                return manager.acquire();
+            } catch (AlreadyClosedException e) {
+                if (current.get() == manager) // closed, but not because of a switch
+                    throw e;
+            }
+        }
+    }
+
+    // the reader is reference counted, so release works also after a switch closed the manager of the searcher
+    public void release(IndexSearcher searcher) throws IOException {
+        if (searcher != null)
+            searcher.getIndexReader().decRef();
+    }
+
+    // new searchers come from manager, searchers acquired before stay usable until they are released
+    public void switchTo(SearcherManager manager) throws IOException {
+        if (manager != null)
+            manager.addListener(refreshListener);
+        SearcherManager previous = current.getAndSet(manager);
+        generation.incrementAndGet();
+        if (previous != null)
+            previous.close();
+    }
+
+    // read before acquiring a searcher, results of that searcher belong to at least this generation
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void refresh() {
+        SearcherManager manager = current.get();
+        if (manager == null)
+            return;
+        try {
+            manager.maybeRefresh();
+        } catch (AlreadyClosedException e) {
+            // switched in the meantime
+        } catch (IOException e) {
+            System.err.println("Refreshing searcher failed: " + e);
+        }
+    }
+
+    public void close() throws IOException {
+        if (refresher != null)
+            refresher.shutdownNow();
+        switchTo(null);
+    }
+}
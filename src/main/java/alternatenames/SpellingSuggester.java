@@ -0,0 +1,230 @@
+package alternatenames;
+
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.BytesRef;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// "did you mean" suggestions for misspelled titles and alternate names with symmetric delete candidates:
+// every name is indexed under all strings obtained by deleting up to MAX_EDITS characters from its prefix,
+// a query looks up the deletes of its own prefix and verifies the candidates with a bounded edit distance
+public class SpellingSuggester {
+
+    private static final int MAGIC = 0x53505331; // SPS1
+    public static final int MAX_EDITS = 2;
+    private static final int PREFIX_LENGTH = 7; // only deletes of the prefix are indexed, which bounds their number per name
+
+    public static int maxCandidates = 2000; // candidates verified per query at most
+    public static long budgetNanos = 2_000_000; // time per query at most
+
+    private final AliasResolver resolver;
+    private final byte[] names; // UTF-8 of all names
+    private final int[] nameStarts; // name -> start in names, one more entry for the end
+    private final long[] outputs; // name -> output in the alias resolver (weight and articles)
+    private final long[] deletes; // sorted hash of delete << 32 | name
+
+    private SpellingSuggester(AliasResolver resolver, byte[] names, int[] nameStarts, long[] outputs, long[] deletes) {
+        this.resolver = resolver;
+        this.names = names;
+        this.nameStarts = nameStarts;
+        this.outputs = outputs;
+        this.deletes = deletes;
+    }
+
+    // names within MAX_EDITS of query, closest first and more popular first for the same distance
+    public List<AliasResolver.Completion> suggest(String query, int n) {
+        long deadline = System.nanoTime() + budgetNanos;
+        BytesRef key = TitleDictionary.normalize(query);
+        String normalized = key.utf8ToString();
+        List<int[]> matches = new ArrayList<>(); // {name, distance}
+        Set<Integer> seen = new HashSet<>();
+        int candidates = 0;
+        search:
+        for (String delete : deletesOf(prefix(normalized))) {
+            long low = (long) delete.hashCode() << 32;
+            for (int i = lowerBound(low); i < deletes.length && (deletes[i] & 0xffffffff00000000L) == low; i++) {
+                int name = (int) deletes[i];
+                if (!seen.add(name))
+                    continue;
+                if (++candidates > maxCandidates || System.nanoTime() > deadline)
+                    break search;
+                int distance = distance(normalized, getName(name), MAX_EDITS);
+                if (distance <= MAX_EDITS)
+                    matches.add(new int[]{name, distance});
+            }
+        }
+        matches.sort((a, b) -> a[1] != b[1] ? a[1] - b[1] : Integer.compare(resolver.weightOf(outputs[b[0]]), resolver.weightOf(outputs[a[0]])));
+        List<AliasResolver.Completion> suggestions = new ArrayList<>();
+        for (int i = 0; i < matches.size() && i < n; i++) {
+            long output = outputs[matches.get(i)[0]];
+            suggestions.add(new AliasResolver.Completion(getName(matches.get(i)[0]), resolver.weightOf(output), resolver.titlesOf(output)));
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return outputs.length;
+    }
+
+    private String getName(int name) {
+        return new String(names, nameStarts[name], nameStarts[name + 1] - nameStarts[name], StandardCharsets.UTF_8);
+    }
+
+    private int lowerBound(long value) {
+        int i = Arrays.binarySearch(deletes, value);
+        if (i < 0)
+            return -i - 1;
+        while (i > 0 && deletes[i - 1] == value)
+            i--;
+        return i;
+    }
+
+    private static String prefix(String s) {
+        return s.length() <= PREFIX_LENGTH ? s : s.substring(0, PREFIX_LENGTH);
+    }
+
+    // s and all strings obtained by deleting up to MAX_EDITS characters, fewer deletions first
+    // so that a query out of budget has verified the closest candidates
+    private static Set<String> deletesOf(String s) {
+        Set<String> result = new LinkedHashSet<>();
+        result.add(s);
+        List<String> level = new ArrayList<>(result);
+        for (int edit = 0; edit < MAX_EDITS; edit++) {
+            List<String> next = new ArrayList<>();
+            for (String word : level) {
+                for (int i = 0; i < word.length(); i++) {
+                    String delete = word.substring(0, i) + word.substring(i + 1);
+                    if (result.add(delete))
+                        next.add(delete);
+                }
+            }
+            level = next;
+        }
+        return result;
+    }
+
+    // optimal string alignment distance (transposition counts as one edit), max + 1 as soon as it exceeds max
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max)
+            return max + 1;
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1))
+                    d = Math.min(d, previous2[j - 2] + 1);
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max)
+                return max + 1;
+            int[] tmp = previous2;
+            previous2 = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[b.length()];
+    }
+
+    // index every name of the alias resolver
+    public static SpellingSuggester build(AliasResolver resolver) throws IOException {
+        List<BytesRef> keys = new ArrayList<>();
+        List<Long> nameOutputs = new ArrayList<>();
+        resolver.forEachName((key, output) -> {
+            keys.add(BytesRef.deepCopyOf(key));
+            nameOutputs.add(output);
+        });
+        int length = 0;
+        for (BytesRef key : keys) {
+            length += key.length;
+        }
+        byte[] names = new byte[length];
+        int[] nameStarts = new int[keys.size() + 1];
+        long[] outputs = new long[keys.size()];
+        long[] deletes = new long[keys.size() * 4];
+        int deleteCount = 0;
+        int position = 0;
+        for (int name = 0; name < keys.size(); name++) {
+            BytesRef key = keys.get(name);
+            nameStarts[name] = position;
+            System.arraycopy(key.bytes, key.offset, names, position, key.length);
+            position += key.length;
+            outputs[name] = nameOutputs.get(name);
+            for (String delete : deletesOf(prefix(key.utf8ToString()))) {
+                if (deleteCount == deletes.length)
+                    deletes = Arrays.copyOf(deletes, deletes.length * 2);
+                deletes[deleteCount++] = (long) delete.hashCode() << 32 | name;
+            }
+        }
+        nameStarts[keys.size()] = position;
+        deletes = Arrays.copyOf(deletes, deleteCount);
+        Arrays.sort(deletes);
+        System.out.println("Spelling suggester: " + keys.size() + " names, " + deleteCount + " deletes");
+        return new SpellingSuggester(resolver, names, nameStarts, outputs, deletes);
+    }
+
+    public void save(Path path) throws IOException {
+        Path tmp = Paths.get(path + ".tmp");
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+            OutputStreamDataOutput out = new OutputStreamDataOutput(stream);
+            out.writeInt(MAGIC);
+            out.writeVInt(names.length);
+            out.writeBytes(names, names.length);
+            out.writeVInt(outputs.length);
+            for (int i = 0; i < outputs.length; i++) {
+                out.writeVInt(nameStarts[i + 1] - nameStarts[i]);
+                out.writeVLong(outputs[i]);
+            }
+            out.writeVInt(deletes.length);
+            for (long delete : deletes) {
+                out.writeLong(delete);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // the suggester refers to names and articles of the resolver it was built from
+    public static SpellingSuggester open(Path path, AliasResolver resolver) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            InputStreamDataInput in = new InputStreamDataInput(stream);
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not a spelling suggester file: " + path);
+            byte[] names = new byte[in.readVInt()];
+            in.readBytes(names, 0, names.length);
+            long[] outputs = new long[in.readVInt()];
+            int[] nameStarts = new int[outputs.length + 1];
+            for (int i = 0; i < outputs.length; i++) {
+                nameStarts[i + 1] = nameStarts[i] + in.readVInt();
+                outputs[i] = in.readVLong();
+            }
+            long[] deletes = new long[in.readVInt()];
+            for (int i = 0; i < deletes.length; i++) {
+                deletes[i] = in.readLong();
+            }
+            return new SpellingSuggester(resolver, names, nameStarts, outputs, deletes);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package alternatenames;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class TemplateUnwrapper {
+
+    private static final int KEEP = 0; // keep one argument of the template (index -1 = last argument)
+    private static final int UBL = 1; // turn template into {{ubl|...}} so that getAlternateNames can split its arguments
+    private static final int DROP = 2; // remove the whole template
+    private static final int REPLACE = 3; // replace template without arguments by a fixed string
+
+    private static final Rule[] RULES = {
+            // templates without arguments, matched by exact name
+            replace("okina", "ʻ"),
+            replace("ndash", "–"),
+            replace("endash", "–"),
+            // templates with arguments, matched by name prefix in this order (first match wins)
+            keep("lang", -1).unnamed("s"),
+            keep("small", -1),
+            keep("big", -1),
+            keep("transl", -1),
+            keep("nobr", -1),
+            keep("proper", -1),
+            keep("abbr", -1),
+            keep("noitalic", -1),
+            keep("no italic", -1),
+            keep("nastaliq", -1),
+            keep("nq", -1),
+            keep("native", -1).removed("paren", "italics", "rtl"),
+            keep("my", -1),
+            keep("nowrap", -1),
+            keep("hebrew", -1),
+            keep("script/arabic", -1),
+            keep("nobold", -1),
+            ubl("nihongo"),
+            ubl("csv"),
+            drop("sfn"),
+            drop("audio"),
+            drop("video"),
+            drop("cit"), // match both cite and citation
+            drop("cn"),
+            drop("rp"),
+            drop("#"),
+            drop("self"),
+            drop("in lang"),
+            drop("jct"),
+            drop("refn"),
+            drop("font"),
+            drop("flagicon")
+    };
+
+    // rules indexed by the lowercase first character of their name, in table order
+    private static final Rule[][] RULES_BY_CHAR = new Rule[128][];
+
+    static {
+        for (int c = 0; c < RULES_BY_CHAR.length; c++) {
+            List<Rule> rules = new ArrayList<>();
+            for (Rule rule : RULES) {
+                if (rule.name.charAt(0) == c)
+                    rules.add(rule);
+            }
+            RULES_BY_CHAR[c] = rules.toArray(new Rule[0]);
+        }
+    }
+
+    private TemplateUnwrapper() {
+    }
+
+    // unwrap all known templates in a single scan, innermost templates first
+    // whitespace is collapsed and trimmed when a template was unwrapped, as the renderer did for the text around it
+    public static String unwrap(String input) {
+        if (input.indexOf('{') < 0)
+            return input;
+        StringBuilder out = new StringBuilder(input.length());
+        int[] starts = new int[8]; // positions in out where the currently open templates start
+        int depth = 0;
+        boolean unwrapped = false;
+        int length = input.length();
+        int i = 0;
+        while (i < length) {
+            char c = input.charAt(i);
+            if (c == '{' || c == '}') {
+                int next = skipWhitespace(input, i + 1);
+                if (next < length && input.charAt(next) == c) {
+                    if (c == '{') {
+                        if (depth == starts.length) {
+                            int[] tmp = new int[depth * 2];
+                            System.arraycopy(starts, 0, tmp, 0, depth);
+                            starts = tmp;
+                        }
+                        starts[depth++] = out.length();
+                        out.append("{{");
+                        i = next + 1;
+                        continue;
+                    }
+                    else if (depth > 0) {
+                        int start = starts[--depth];
+                        String replacement = apply(out, start + 2);
+                        if (replacement == null) {
+                            out.append(input, i, next + 1); // unknown template, keep it as it is
+                        }
+                        else {
+                            out.setLength(start);
+                            out.append(replacement);
+                            unwrapped = true;
+                        }
+                        i = next + 1;
+                        continue;
+                    }
+                }
+            }
+            out.append(c);
+            i++;
+        }
+        return unwrapped ? collapseWhitespace(out) : out.toString();
+    }
+
+    // "A  B " --> "A B"
+    private static String collapseWhitespace(CharSequence s) {
+        StringBuilder out = new StringBuilder(s.length());
+        boolean space = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = out.length() > 0;
+                continue;
+            }
+            if (space)
+                out.append(' ');
+            space = false;
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    // return replacement for the template whose content starts at from, or null if the template should be kept
+    private static String apply(StringBuilder out, int from) {
+        int end = out.length();
+        int pipe = -1;
+        for (int i = from; i < end; i++) {
+            char c = out.charAt(i);
+            if (c == '{' || c == '}')
+                return null; // contains a template that was not unwrapped
+            if (c == '|' && pipe < 0)
+                pipe = i;
+        }
+        int nameStart = skipWhitespace(out, from);
+        if (pipe < 0) {
+            String name = out.substring(nameStart, end).trim();
+            Rule rule = findRule(name, true);
+            return rule == null ? null : rule.replacement;
+        }
+        Rule rule = findRule(out.substring(nameStart, pipe), false);
+        if (rule == null)
+            return null;
+        switch (rule.action) {
+            case DROP:
+                return "";
+            case UBL:
+                return "{{ubl" + out.substring(pipe, lastNonWhitespace(out, pipe, end)) + "}}";
+            case KEEP:
+                List<String> arguments = new ArrayList<>();
+                int argumentStart = pipe + 1;
+                int brackets = 0; // the pipe of a link such as [[Paris|Ville]] does not separate arguments
+                for (int i = argumentStart; i <= end; i++) {
+                    if (i < end && out.charAt(i) == '[')
+                        brackets++;
+                    else if (i < end && out.charAt(i) == ']')
+                        brackets--;
+                    else if (i == end || out.charAt(i) == '|' && brackets <= 0) {
+                        String argument = out.substring(argumentStart, i);
+                        String parameter = parameterName(argument);
+                        if (contains(rule.removedParameters, parameter)) {
+                            // parameter such as "paren=..." is removed before choosing the argument to keep
+                        }
+                        else if (contains(rule.unnamedParameters, parameter))
+                            arguments.add(argument.substring(argument.indexOf('=') + 1)); // keep only value of parameter such as "s=..."
+                        else
+                            arguments.add(argument);
+                        argumentStart = i + 1;
+                    }
+                }
+                if (arguments.isEmpty())
+                    return "";
+                int index = rule.argument < 0 ? arguments.size() + rule.argument : rule.argument;
+                if (index < 0 || index >= arguments.size())
+                    return "";
+                return arguments.get(index).trim();
+            default:
+                return null;
+        }
+    }
+
+    private static Rule findRule(String name, boolean exact) {
+        if (name.isEmpty())
+            return null;
+        char first = Character.toLowerCase(name.charAt(0));
+        if (first >= RULES_BY_CHAR.length)
+            return null;
+        for (Rule rule : RULES_BY_CHAR[first]) {
+            if (exact != (rule.action == REPLACE))
+                continue;
+            if (exact ? rule.name.equalsIgnoreCase(name) : name.regionMatches(true, 0, rule.name, 0, rule.name.length()))
+                return rule;
+        }
+        return null;
+    }
+
+    // name of a named argument ("paren=yes" --> "paren"), or null for positional argument
+    private static String parameterName(String argument) {
+        int equals = argument.indexOf('=');
+        return equals < 0 ? null : argument.substring(0, equals).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean contains(String[] parameters, String parameter) {
+        if (parameter == null)
+            return false;
+        for (String p : parameters) {
+            if (p.equals(parameter))
+                return true;
+        }
+        return false;
+    }
+
+    private static int skipWhitespace(CharSequence s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static int lastNonWhitespace(CharSequence s, int from, int end) {
+        while (end > from && Character.isWhitespace(s.charAt(end - 1)))
+            end--;
+        return end;
+    }
+
+    private static Rule keep(String name, int argument) {
+        return new Rule(name, KEEP, argument, null);
+    }
+
+    private static Rule ubl(String name) {
+        return new Rule(name, UBL, 0, null);
+    }
+
+    private static Rule drop(String name) {
+        return new Rule(name, DROP, 0, null);
+    }
+
+    private static Rule replace(String name, String replacement) {
+        return new Rule(name, REPLACE, 0, replacement);
+    }
+
+    private static class Rule {
+        final String name;
+        final int action;
+        final int argument;
+        final String replacement;
+        String[] removedParameters = new String[0];
+        String[] unnamedParameters = new String[0];
+
+        Rule(String name, int action, int argument, String replacement) {
+            this.name = name;
+            this.action = action;
+            this.argument = argument;
+            this.replacement = replacement;
+        }
+
+        Rule removed(String... parameters) {
+            removedParameters = parameters;
+            return this;
+        }
+
+        Rule unnamed(String... parameters) {
+            unnamedParameters = parameters;
+            return this;
+        }
+    }
+}
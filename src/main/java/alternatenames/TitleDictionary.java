@@ -0,0 +1,360 @@
+package alternatenames;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// immutable memory-mapped dictionary of normalized title -> alternate names for exact lookups without Lucene
+// file: header, front-coded titles in blocks of BLOCK_SIZE, block offsets, record offsets, records (title, alternate names)
+// usage: TitleDictionary <index> <dictionary>
+public class TitleDictionary {
+
+    private static final int MAGIC = 0x54444331; // TDC1
+    private static final int BLOCK_SIZE = 16; // titles between two full (not front-coded) titles
+    private static final int HEADER_SIZE = 4 * 7;
+    private static final Set<String> FIELDS = new HashSet<>(Arrays.asList("title", "alternateName", "tag"));
+
+    // normalized key of the lookup and the title being decoded, reused by each thread
+    private static final ThreadLocal<byte[][]> SCRATCH = ThreadLocal.withInitial(() -> new byte[][]{new byte[256], new byte[256]});
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int blockCount;
+    private final int titlesStart;
+    private final int blocksStart;
+    private final int recordOffsetsStart;
+    private final int recordsStart;
+
+    private TitleDictionary(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC)
+            throw new IOException("Not a title dictionary");
+        count = buffer.getInt(4);
+        blockCount = buffer.getInt(8);
+        titlesStart = buffer.getInt(12);
+        blocksStart = buffer.getInt(16);
+        recordOffsetsStart = buffer.getInt(20);
+        recordsStart = buffer.getInt(24);
+    }
+
+    public static TitleDictionary open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Title dictionary " + path + " is larger than 2 GB");
+            return new TitleDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // alternate names of the article with the given title (case and whitespace insensitive), null if there is none
+    public AliasRecord lookup(String title) {
+        int entry = find(title);
+        if (entry < 0)
+            return null;
+        int position = recordsStart + buffer.getInt(recordOffsetsStart + 4 * entry);
+        int[] next = new int[1];
+        String originalTitle = readString(position, next);
+        int names = readVInt(next[0], next);
+        List<String> alternateNames = new ArrayList<>(names);
+        for (int i = 0; i < names; i++) {
+            alternateNames.add(readString(next[0], next));
+        }
+        return new AliasRecord(originalTitle, "", "all_tags", alternateNames);
+    }
+
+    // index of the entry with the given title, -1 if there is none
+    private int find(String title) {
+        byte[][] scratch = SCRATCH.get();
+        int keyLength = normalize(title, scratch);
+        byte[] key = scratch[0];
+        // last block whose first title is not greater than key
+        int low = 0;
+        int high = blockCount - 1;
+        int block = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = titlesStart + buffer.getInt(blocksStart + 4 * middle);
+            position = skipVInt(position); // shared prefix of the first title is always 0
+            int length = vIntAt(position);
+            int cmp = compare(key, keyLength, skipVInt(position), length);
+            if (cmp == 0)
+                return middle * BLOCK_SIZE;
+            if (cmp > 0) {
+                block = middle;
+                low = middle + 1;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0)
+            return -1;
+        // decode titles of the block one by one
+        byte[] current = scratch[1];
+        int currentLength = 0;
+        int position = titlesStart + buffer.getInt(blocksStart + 4 * block);
+        int end = Math.min(count, (block + 1) * BLOCK_SIZE);
+        for (int entry = block * BLOCK_SIZE; entry < end; entry++) {
+            int shared = vIntAt(position);
+            position = skipVInt(position);
+            int suffix = vIntAt(position);
+            position = skipVInt(position);
+            if (shared + suffix > current.length) {
+                current = Arrays.copyOf(current, Math.max(shared + suffix, current.length * 2));
+                scratch[1] = current;
+            }
+            for (int i = 0; i < suffix; i++) {
+                current[shared + i] = buffer.get(position + i);
+            }
+            position += suffix;
+            currentLength = shared + suffix;
+            int cmp = compare(key, keyLength, current, currentLength);
+            if (cmp == 0)
+                return entry;
+            if (cmp < 0)
+                return -1;
+        }
+        return -1;
+    }
+
+    private int compare(byte[] key, int keyLength, int position, int length) {
+        int n = Math.min(keyLength, length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (key[i] & 0xff) - (buffer.get(position + i) & 0xff);
+            if (cmp != 0)
+                return cmp;
+        }
+        return keyLength - length;
+    }
+
+    private static int compare(byte[] key, int keyLength, byte[] other, int length) {
+        int n = Math.min(keyLength, length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (key[i] & 0xff) - (other[i] & 0xff);
+            if (cmp != 0)
+                return cmp;
+        }
+        return keyLength - length;
+    }
+
+    private int vIntAt(int position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get(position++);
+            value |= (b & 0x7f) << shift;
+            if (b >= 0)
+                return value;
+        }
+    }
+
+    private int skipVInt(int position) {
+        while (buffer.get(position) < 0)
+            position++;
+        return position + 1;
+    }
+
+    private int readVInt(int position, int[] next) {
+        next[0] = skipVInt(position);
+        return vIntAt(position);
+    }
+
+    private String readString(int position, int[] next) {
+        int length = vIntAt(position);
+        position = skipVInt(position);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        next[0] = position + length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // lower case UTF-8 of title with underscores and runs of whitespace replaced by one space, written to scratch[0]
+    private static int normalize(String title, byte[][] scratch) {
+        byte[] out = scratch[0];
+        if (out.length < title.length() * 4) {
+            out = new byte[title.length() * 4];
+            scratch[0] = out;
+        }
+        int length = 0;
+        boolean space = false;
+        for (int i = 0; i < title.length(); ) {
+            int c = title.codePointAt(i);
+            i += Character.charCount(c);
+            if (c == '_' || Character.isWhitespace(c) || c == '\u00a0') {
+                space = length > 0;
+                continue;
+            }
+            if (space) {
+                out[length++] = ' ';
+                space = false;
+            }
+            c = Character.toLowerCase(c);
+            if (c < 0x80) {
+                out[length++] = (byte) c;
+            }
+            else if (c < 0x800) {
+                out[length++] = (byte) (0xc0 | c >> 6);
+                out[length++] = (byte) (0x80 | c & 0x3f);
+            }
+            else if (c < 0x10000) {
+                out[length++] = (byte) (0xe0 | c >> 12);
+                out[length++] = (byte) (0x80 | c >> 6 & 0x3f);
+                out[length++] = (byte) (0x80 | c & 0x3f);
+            }
+            else {
+                out[length++] = (byte) (0xf0 | c >> 18);
+                out[length++] = (byte) (0x80 | c >> 12 & 0x3f);
+                out[length++] = (byte) (0x80 | c >> 6 & 0x3f);
+                out[length++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        return length;
+    }
+
+    // normalized UTF-8 key of a title or alternate name
+    static BytesRef normalize(String title) {
+        byte[][] scratch = {new byte[256]};
+        int length = normalize(title, scratch);
+        return new BytesRef(Arrays.copyOf(scratch[0], length));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: TitleDictionary <index> <dictionary>");
+            return;
+        }
+        try (IndexReader reader = DirectoryReader.open(FSDirectory.open(Paths.get(args[0]).toFile()))) {
+            build(reader, Paths.get(args[1]));
+        }
+    }
+
+    // write the dictionary of all articles in the index (documents with tag all_tags or of the compact schema)
+    public static void build(IndexReader reader, Path path) throws IOException {
+        TreeMap<BytesRef, Entry> entries = new TreeMap<>(); // sorted by UTF-8 bytes of normalized title
+        Bits liveDocs = MultiFields.getLiveDocs(reader);
+        for (int i = 0; i < reader.maxDoc(); i++) {
+            if (liveDocs != null && !liveDocs.get(i))
+                continue;
+            Document document = reader.document(i, FIELDS);
+            String tag = document.get("tag");
+            if (tag != null && !"all_tags".equals(tag))
+                continue;
+            String title = document.get("title");
+            entries.computeIfAbsent(normalize(title), k -> new Entry(title)).alternateNames.addAll(Indexer.alternateNames(document));
+        }
+        write(entries, path);
+        System.out.println("Title dictionary: " + entries.size() + " titles");
+    }
+
+    private static void write(TreeMap<BytesRef, Entry> entries, Path path) throws IOException {
+        ByteArrayOutputStream titles = new ByteArrayOutputStream();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        int[] blockOffsets = new int[(entries.size() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        int[] recordOffsets = new int[entries.size()];
+        BytesRef previous = null;
+        int entry = 0;
+        for (Map.Entry<BytesRef, Entry> e : entries.entrySet()) {
+            BytesRef key = e.getKey();
+            int shared = 0;
+            if (entry % BLOCK_SIZE == 0) {
+                blockOffsets[entry / BLOCK_SIZE] = titles.size();
+            }
+            else {
+                int n = Math.min(previous.length, key.length);
+                while (shared < n && previous.bytes[previous.offset + shared] == key.bytes[key.offset + shared])
+                    shared++;
+            }
+            writeVInt(titles, shared);
+            writeVInt(titles, key.length - shared);
+            titles.write(key.bytes, key.offset + shared, key.length - shared);
+            previous = key;
+
+            recordOffsets[entry] = records.size();
+            writeString(records, e.getValue().title);
+            writeVInt(records, e.getValue().alternateNames.size());
+            for (String alternateName : e.getValue().alternateNames) {
+                writeString(records, alternateName);
+            }
+            entry++;
+        }
+        long size = (long) HEADER_SIZE + titles.size() + 4L * blockOffsets.length + 4L * recordOffsets.length + records.size();
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Title dictionary would be larger than 2 GB");
+        int titlesStart = HEADER_SIZE;
+        int blocksStart = titlesStart + titles.size();
+        int recordOffsetsStart = blocksStart + 4 * blockOffsets.length;
+        int recordsStart = recordOffsetsStart + 4 * recordOffsets.length;
+        Path tmp = Paths.get(path + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(entries.size());
+            out.writeInt(blockOffsets.length);
+            out.writeInt(titlesStart);
+            out.writeInt(blocksStart);
+            out.writeInt(recordOffsetsStart);
+            out.writeInt(recordsStart);
+            titles.writeTo(out);
+            for (int offset : blockOffsets) {
+                out.writeInt(offset);
+            }
+            for (int offset : recordOffsets) {
+                out.writeInt(offset);
+            }
+            records.writeTo(out);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeVInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeString(OutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    // original title and alternate names of all articles with the same normalized title
+    private static class Entry {
+        final String title;
+        final Set<String> alternateNames = new LinkedHashSet<>();
+
+        Entry(String title) {
+            this.title = title;
+        }
+    }
+}
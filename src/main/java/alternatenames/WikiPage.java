@@ -0,0 +1,13 @@
+package alternatenames;
+
+// title and text of one page of the dump
+public class WikiPage {
+
+    public final String title; // null if the page has no title
+    public final String text; // lines of TEXT from the start of the infobox, null if the page has no infobox
+
+    public WikiPage(String title, String text) {
+        this.title = title;
+        this.text = text;
+    }
+}
@@ -0,0 +1,176 @@
+package alternatenames;
+
+import static org.apache.commons.lang3.StringEscapeUtils.unescapeHtml4;
+
+// render wikitext of a parameter value directly to plain text with <br> boundaries in one pass,
+// alternative to the textile-j and Jsoup round trip in Parser.removeHtmlTags
+public class WikitextRenderer {
+
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    private WikitextRenderer() {
+    }
+
+    public static String render(String input) {
+        String text = unescapeHtml4(input); // text of the dump is escaped XML
+        StringBuilder out = new StringBuilder(text.length());
+        render(text, out);
+        return TemplateUnwrapper.unwrap(out.toString());
+    }
+
+    private static void render(String text, StringBuilder out) {
+        int closingGuillemet = -1; // position of » that belongs to an already skipped «
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    i = tag(text, i, out);
+                    continue;
+                case '&':
+                    i = entity(text, i, out);
+                    continue;
+                case '\'':
+                    int run = i;
+                    while (run < length && text.charAt(run) == '\'')
+                        run++;
+                    if (run - i == 1)
+                        out.append(c); // single apostrophe is text, two or more are bold/italic markup
+                    i = run;
+                    continue;
+                case '[':
+                    i = link(text, i, out);
+                    continue;
+                case '*':
+                    out.append("<br>"); // items in plainlist and flatlist
+                    i++;
+                    continue;
+                case '«':
+                    int closing = text.indexOf('»', i + 1);
+                    if (closing > 0 && text.lastIndexOf('«', closing) == i)
+                        closingGuillemet = closing;
+                    else
+                        out.append(c);
+                    i++;
+                    continue;
+                case '»':
+                    if (i != closingGuillemet)
+                        out.append(c);
+                    i++;
+                    continue;
+                default:
+                    appendText(out, c);
+                    i++;
+            }
+        }
+    }
+
+    // HTML tag or comment starting at i, return position after it
+    private static int tag(String text, int i, StringBuilder out) {
+        if (text.startsWith("<!--", i)) {
+            int end = text.indexOf("-->", i + 4);
+            return end < 0 ? text.length() : end + 3;
+        }
+        int end = text.indexOf('>', i + 1);
+        if (end < 0) {
+            out.append('<');
+            return i + 1;
+        }
+        int nameStart = i + 1;
+        boolean closing = nameStart < end && text.charAt(nameStart) == '/';
+        if (closing)
+            nameStart++;
+        while (nameStart < end && Character.isWhitespace(text.charAt(nameStart)))
+            nameStart++;
+        int nameEnd = nameStart;
+        while (nameEnd < end && Character.isLetter(text.charAt(nameEnd)))
+            nameEnd++;
+        if (nameEnd == nameStart) { // not a tag, for example "a < b"
+            appendText(out, '<');
+            return i + 1;
+        }
+        String name = text.substring(nameStart, nameEnd);
+        boolean selfClosing = text.charAt(end - 1) == '/';
+        if (name.equalsIgnoreCase("br")) {
+            out.append("<br>");
+            return end + 1;
+        }
+        if (!closing && !selfClosing && (name.equalsIgnoreCase("ref") || name.equalsIgnoreCase("sup"))) {
+            int close = indexOfIgnoreCase(text, "</" + name, end + 1);
+            if (close < 0)
+                return end + 1;
+            int closeEnd = text.indexOf('>', close);
+            return closeEnd < 0 ? text.length() : closeEnd + 1;
+        }
+        return end + 1; // other tags are removed, their content is kept
+    }
+
+    // entity that was escaped twice in the dump, such as &amp;nbsp;
+    private static int entity(String text, int i, StringBuilder out) {
+        int end = text.indexOf(';', i + 1);
+        if (end > i + 1 && end - i <= MAX_ENTITY_LENGTH) {
+            String entity = text.substring(i, end + 1);
+            String decoded = unescapeHtml4(entity);
+            if (!decoded.equals(entity)) {
+                for (int j = 0; j < decoded.length(); j++) {
+                    appendText(out, decoded.charAt(j));
+                }
+                return end + 1;
+            }
+        }
+        out.append('&');
+        return i + 1;
+    }
+
+    // [[target|label]] --> label, [[target]] --> target, [url label] --> label, files and categories are removed
+    private static int link(String text, int i, StringBuilder out) {
+        if (text.startsWith("[[", i)) {
+            int end = text.indexOf("]]", i + 2);
+            if (end < 0) {
+                out.append('[');
+                return i + 1;
+            }
+            String link = text.substring(i + 2, end);
+            int colon = link.indexOf(':');
+            if (colon > 0) {
+                String namespace = link.substring(0, colon).trim();
+                if (namespace.equalsIgnoreCase("file") || namespace.equalsIgnoreCase("image") || namespace.equalsIgnoreCase("category"))
+                    return end + 2;
+            }
+            int pipe = link.lastIndexOf('|');
+            String label = pipe < 0 ? link : link.substring(pipe + 1);
+            render(label.isEmpty() ? link.substring(0, pipe) : label, out);
+            return end + 2;
+        }
+        int end = text.indexOf(']', i + 1);
+        if (end < 0 || !(text.startsWith("http", i + 1) || text.startsWith("//", i + 1))) {
+            out.append('[');
+            return i + 1;
+        }
+        int space = text.indexOf(' ', i + 1);
+        if (space > 0 && space < end)
+            render(text.substring(space + 1, end), out);
+        return end + 1;
+    }
+
+    // append character, newlines are removed and whitespace is collapsed
+    private static void appendText(StringBuilder out, char c) {
+        if (c == '\n' || c == '\r')
+            return;
+        if (Character.isWhitespace(c) || c == '\u00a0') {
+            if (out.length() > 0 && out.charAt(out.length() - 1) == ' ')
+                return;
+            c = ' ';
+        }
+        out.append(c);
+    }
+
+    private static int indexOfIgnoreCase(String text, String s, int from) {
+        for (int i = from; i <= text.length() - s.length(); i++) {
+            if (text.regionMatches(true, i, s, 0, s.length()))
+                return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,58 @@
+package alternatenames;
+
+import org.junit.After;
+import org.junit.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+// rendering of infobox alias values (one value per line, escaped as in the dump) by both renderers
+public class ParserRenderingTest {
+
+    @After
+    public void resetRenderer() {
+        Parser.renderer = Parser.RENDERER_TEXTILE;
+    }
+
+    // golden output of the regex cascade that TemplateUnwrapper replaced, except that markup in kept arguments is rendered now
+    @Test
+    public void textileRendererGivesGoldenOutput() throws IOException {
+        Parser.renderer = Parser.RENDERER_TEXTILE;
+        List<String> values = readLines("/infobox-aliases.txt");
+        List<String> expected = readLines("/infobox-aliases.expected.txt");
+        assertEquals(values.size(), expected.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i), expected.get(i), Parser.removeHtmlTags(values.get(i)));
+        }
+    }
+
+    @Test
+    public void keptArgumentsAreRendered() {
+        for (String renderer : Arrays.asList(Parser.RENDERER_TEXTILE, Parser.RENDERER_DIRECT)) {
+            Parser.renderer = renderer;
+            assertEquals(renderer, "Paris", Parser.removeHtmlTags("{{lang|fr|[[Paris]]}}"));
+            assertEquals(renderer, "x", Parser.removeHtmlTags("{{lang|es|'''''x'''''}}"));
+            assertEquals(renderer, "Ville Lumière", Parser.removeHtmlTags("{{lang|fr|[[Paris|Ville Lumière]]}}"));
+            assertEquals(renderer, "Paris", Parser.removeHtmlTags("{{native name|fr|''Paris''|italics=off}}"));
+        }
+    }
+
+    private static List<String> readLines(String resource) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                ParserRenderingTest.class.getResourceAsStream(resource), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isEmpty())
+                    lines.add(line);
+            }
+        }
+        return lines;
+    }
+}